@@ -0,0 +1,237 @@
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the execution modes at a fixed number of concurrent connections. For
+ * each mode the packaged API is launched with client rate limiting disabled (so
+ * the numbers measure request handling, not 429s), warmed up, then driven with
+ * the given request path. Reported per mode: throughput, latency percentiles and
+ * the server's platform thread count read from /health after the run.
+ *
+ *   mvn -q package -DskipTests
+ *   java loadtest/ExecutionModeLoadTest.java --concurrency=1000 --requests=20000
+ *
+ * Options (all --name=value):
+ *   modes         comma-separated execution modes (default blocking,reactive, plus virtual on Java 21+)
+ *   concurrency   concurrent connections (default 1000)
+ *   requests      requests per mode (default 20000); warmup: requests before measuring (default 2000)
+ *   path          request path (default /weather/current?location=London); "{n}" in it is replaced
+ *                 with the request number modulo locations (default 1000), e.g. location=City{n}
+ *   jar           application jar to launch (default target/weather-aggregation-api-1.0.0.jar)
+ *   jvm-args      JVM options for the launched application (default -Xmx512m)
+ *   app-args      extra application arguments, space separated. To put upstream latency behind the
+ *                 requests, run StubbedUpstreamLoadTest --stubs-only and pass the arguments it prints
+ *   app-url       drive one instance that is already running instead (start it with a high
+ *                 rate-limit.client.capacity, or most responses will be 429s)
+ *
+ * The application runs on the same Java runtime as this program; virtual mode needs Java 21.
+ */
+public class ExecutionModeLoadTest {
+
+    private static final Pattern LIVE_THREADS = Pattern.compile("\"liveThreads\":(\\d+)");
+    private static final Pattern PEAK_THREADS = Pattern.compile("\"peakThreads\":(\\d+)");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "1000"));
+        int requests = Integer.parseInt(options.getOrDefault("requests", "20000"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "2000"));
+        String path = options.getOrDefault("path", "/weather/current?location=London");
+        int locations = Integer.parseInt(options.getOrDefault("locations", "1000"));
+        String defaultModes = Runtime.version().feature() >= 21 ? "blocking,virtual,reactive" : "blocking,reactive";
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        List<String> rows = new ArrayList<>();
+        List<String> modes = options.containsKey("app-url")
+                ? List.of("running")
+                : List.of(options.getOrDefault("modes", defaultModes).split(","));
+        for (String mode : modes) {
+            Process app = null;
+            String baseUrl = options.get("app-url");
+            try {
+                if (baseUrl == null) {
+                    int port = freePort();
+                    app = launch(options, mode.trim(), port);
+                    baseUrl = "http://localhost:" + port;
+                }
+                awaitHealthy(client, baseUrl, app);
+
+                if (warmup > 0) {
+                    run(client, baseUrl + path, locations, Math.min(concurrency, 64), warmup);
+                }
+                Result result = run(client, baseUrl + path, locations, concurrency, requests);
+                String health = health(client, baseUrl);
+
+                rows.add(String.format("%-9s %8d %7d %9.1f %8.1f %8.1f %8.1f %8s %8s", mode.trim(), requests,
+                        result.errors, requests / result.seconds, result.percentile(0.50),
+                        result.percentile(0.99), result.percentile(0.999),
+                        first(LIVE_THREADS, health), first(PEAK_THREADS, health)));
+            } finally {
+                if (app != null) {
+                    app.destroy();
+                    app.waitFor();
+                }
+            }
+        }
+
+        System.out.printf("%nconcurrency=%d path=%s%n", concurrency, path);
+        System.out.printf("%-9s %8s %7s %9s %8s %8s %8s %8s %8s%n",
+                "mode", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "threads", "peak");
+        rows.forEach(System.out::println);
+    }
+
+    private static Result run(HttpClient client, String url, int locations, int concurrency, int total)
+            throws InterruptedException {
+        Semaphore inFlight = new Semaphore(concurrency);
+        long[] latencies = new long[total];
+        AtomicInteger errors = new AtomicInteger();
+        List<CompletableFuture<?>> pending = new ArrayList<>(total);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            inFlight.acquire();
+            int index = i;
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url.replace("{n}", String.valueOf(i % locations))))
+                    .timeout(Duration.ofSeconds(60))
+                    .GET()
+                    .build();
+            long sent = System.nanoTime();
+            pending.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, ex) -> {
+                        latencies[index] = System.nanoTime() - sent;
+                        if (ex != null || response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                        inFlight.release();
+                    }));
+        }
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).exceptionally(ex -> null).join();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Arrays.sort(latencies);
+        return new Result(latencies, errors.get(), seconds);
+    }
+
+    private static Process launch(Map<String, String> options, String mode, int port) throws IOException {
+        String jar = options.getOrDefault("jar", "target/weather-aggregation-api-1.0.0.jar");
+        if (!new File(jar).isFile()) {
+            throw new IllegalStateException(jar + " not found; run mvn package first or pass --app-url");
+        }
+
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.addAll(words(options.getOrDefault("jvm-args", "-Xmx512m")));
+        command.add("-jar");
+        command.add(jar);
+        // Measure the execution mode, not the limiters or the file store; app-args may override these
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("server.port", String.valueOf(port));
+        properties.put("weather.execution.mode", mode);
+        properties.put("rate-limit.client.capacity", "1000000000");
+        properties.put("cache.l2.enabled", "false");
+        properties.put("weather.warmup.enabled", "false");
+        // Tomcat accepts 8192 connections by default; leave room for every client connection
+        properties.put("server.tomcat.max-connections", String.valueOf(Math.max(8192, 2 * Integer.parseInt(
+                options.getOrDefault("concurrency", "1000")))));
+        for (String arg : words(options.getOrDefault("app-args", ""))) {
+            int equals = arg.indexOf('=');
+            if (arg.startsWith("--") && equals > 0) {
+                properties.put(arg.substring(2, equals), arg.substring(equals + 1));
+            }
+        }
+        properties.forEach((name, value) -> command.add("--" + name + "=" + value));
+
+        File log = new File("target", "loadtest-" + mode + ".log");
+        System.out.println("Launching " + mode + " mode on port " + port + " (output in " + log + ")");
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log)
+                .start();
+    }
+
+    private static void awaitHealthy(HttpClient client, String baseUrl, Process app) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(90).toNanos();
+        while (System.nanoTime() < deadline) {
+            if (app != null && !app.isAlive()) {
+                throw new IllegalStateException("Application exited with code " + app.exitValue());
+            }
+            if (!health(client, baseUrl).isEmpty()) {
+                return;
+            }
+            Thread.sleep(250);
+        }
+        throw new IllegalStateException("Application at " + baseUrl + " did not become healthy");
+    }
+
+    private static String health(HttpClient client, String baseUrl) {
+        try {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/health")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            return response.statusCode() == 200 ? response.body() : "";
+        } catch (Exception e) {
+            return "";
+        }
+    }
+
+    private static String first(Pattern pattern, String health) {
+        Matcher matcher = pattern.matcher(health);
+        return matcher.find() ? matcher.group(1) : "-";
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static List<String> words(String value) {
+        return value.isBlank() ? List.of() : List.of(value.trim().split("\\s+"));
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            int equals = arg.indexOf('=');
+            if (equals < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, equals), arg.substring(equals + 1));
+            }
+        }
+        return options;
+    }
+
+    private record Result(long[] latencies, int errors, double seconds) {
+        double percentile(double p) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p * latencies.length) - 1;
+            return latencies[Math.max(0, Math.min(index, latencies.length - 1))] / 1e6;
+        }
+    }
+}
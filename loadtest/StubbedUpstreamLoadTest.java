@@ -0,0 +1,452 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * End-to-end load test that never touches the real providers. It starts local
+ * stub servers for OpenWeatherMap and WeatherAPI, launches the packaged API
+ * pointed at them through the weather.api.* URL properties, then drives it at
+ * increasing concurrency and reports per step: throughput, latency percentiles,
+ * cache hit ratio, server allocation rate and calls that reached the stubs.
+ *
+ *   mvn -q package -DskipTests
+ *   java loadtest/StubbedUpstreamLoadTest.java --concurrency=1,16,64,256 --requests=5000 --latency-ms=80
+ *
+ * Options (all --name=value):
+ *   jar             application jar to launch (default target/weather-aggregation-api-1.0.0.jar)
+ *   app-url         drive an instance that is already running instead of launching one
+ *   app-args        extra application arguments, space separated (e.g. "--weather.execution.mode=reactive")
+ *   jvm-args        JVM options for the launched application (default -Xmx512m)
+ *   concurrency     comma-separated concurrency steps (default 1,8,32,128,512)
+ *   requests        requests per step (default 5000); warmup: requests before the first step (default 2000)
+ *   locations       distinct locations requested (default 200)
+ *   mix             current,forecast,search request weights (default 70,20,10)
+ *   latency-ms      stub response delay (default 50), plus up to jitter-ms extra (default 30)
+ *   error-rate      share of stub responses that are HTTP 500 (default 0.0)
+ *   payload-bytes   pad stub responses to at least this size (default 0, natural size)
+ *   forecast-hours  hourly entries per forecast day (default 24)
+ *   stubs-only      just run the stubs and print the application arguments that use them
+ *
+ * Latency, error-rate and payload-bytes can be set per provider, e.g. --weatherapi.error-rate=0.2.
+ */
+public class StubbedUpstreamLoadTest {
+
+    private static final Pattern CACHE_TIER = Pattern.compile("\"l1\":\\{([^{}]*)}");
+    private static final Pattern HITS = Pattern.compile("\"hits\":(\\d+)");
+    private static final Pattern MISSES = Pattern.compile("\"misses\":(\\d+)");
+    private static final Pattern ALLOCATED = Pattern.compile("\"allocatedBytes\":(-?\\d+)");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+
+        Stub openWeather = new Stub("openweather", options);
+        Stub weatherApi = new Stub("weatherapi", options);
+        List<String> appArgs = List.of(
+                "--weather.api.openweather.url=" + openWeather.url() + "/data/2.5",
+                "--weather.api.openweather.geo-url=" + openWeather.url() + "/geo/1.0",
+                "--weather.api.weatherapi.url=" + weatherApi.url() + "/v1",
+                // Measure the service, not the limiters
+                "--rate-limit.client.capacity=1000000000",
+                "--rate-limit.upstream.openweather.per-minute=",
+                "--rate-limit.upstream.weatherapi.per-minute=",
+                "--cache.l2.enabled=false");
+
+        if (options.containsKey("stubs-only")) {
+            System.out.println("Stubs running. Start the application with:");
+            System.out.println("  " + String.join(" ", appArgs));
+            Thread.currentThread().join();
+        }
+
+        Process app = null;
+        String baseUrl = options.get("app-url");
+        try {
+            if (baseUrl == null) {
+                int port = freePort();
+                app = launch(options, appArgs, port);
+                baseUrl = "http://localhost:" + port;
+            }
+
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+            awaitHealthy(client, baseUrl, app);
+
+            Workload workload = new Workload(options);
+            int warmup = Integer.parseInt(options.getOrDefault("warmup", "2000"));
+            if (warmup > 0) {
+                System.out.println("Warming up with " + warmup + " requests...");
+                run(client, baseUrl, workload, 16, warmup);
+            }
+
+            int requests = Integer.parseInt(options.getOrDefault("requests", "5000"));
+            System.out.printf("%n%11s %8s %7s %9s %8s %8s %8s %7s %11s %9s %9s%n", "concurrency", "requests", "errors",
+                    "req/s", "p50 ms", "p99 ms", "p999 ms", "hit %", "alloc MB/s", "KB/req", "upstream");
+
+            for (String step : options.getOrDefault("concurrency", "1,8,32,128,512").split(",")) {
+                int concurrency = Integer.parseInt(step.trim());
+                String before = health(client, baseUrl);
+                long upstreamBefore = openWeather.requests.sum() + weatherApi.requests.sum();
+
+                Result result = run(client, baseUrl, workload, concurrency, requests);
+
+                String after = health(client, baseUrl);
+                long upstream = openWeather.requests.sum() + weatherApi.requests.sum() - upstreamBefore;
+                long hits = sum(HITS, after) - sum(HITS, before);
+                long misses = sum(MISSES, after) - sum(MISSES, before);
+                long allocated = first(ALLOCATED, after) - first(ALLOCATED, before);
+
+                System.out.printf(Locale.ROOT, "%11d %8d %7d %9.1f %8.1f %8.1f %8.1f %7.1f %11.1f %9.1f %9d%n",
+                        concurrency, requests, result.errors, requests / result.seconds,
+                        result.percentile(0.50), result.percentile(0.99), result.percentile(0.999),
+                        hits + misses > 0 ? 100.0 * hits / (hits + misses) : 0.0,
+                        allocated / 1e6 / result.seconds, allocated / 1024.0 / requests, upstream);
+            }
+        } finally {
+            if (app != null) {
+                app.destroy();
+                app.waitFor();
+            }
+            openWeather.server.stop(0);
+            weatherApi.server.stop(0);
+        }
+    }
+
+    // Closed loop: at most `concurrency` requests in flight, the next one is sent as soon as one completes
+    private static Result run(HttpClient client, String baseUrl, Workload workload, int concurrency, int requests)
+            throws InterruptedException {
+        Semaphore inFlight = new Semaphore(concurrency);
+        long[] latencies = new long[requests];
+        AtomicInteger errors = new AtomicInteger();
+        List<CompletableFuture<?>> pending = new ArrayList<>(requests);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            int index = i;
+            inFlight.acquire();
+            long sent = System.nanoTime();
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + workload.nextPath()))
+                    .timeout(Duration.ofSeconds(60))
+                    .GET()
+                    .build();
+            pending.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, ex) -> {
+                        latencies[index] = System.nanoTime() - sent;
+                        if (ex != null || response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                        inFlight.release();
+                    }));
+        }
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).exceptionally(ex -> null).join();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Arrays.sort(latencies);
+        return new Result(latencies, errors.get(), seconds);
+    }
+
+    private static Process launch(Map<String, String> options, List<String> appArgs, int port) throws IOException {
+        String jar = options.getOrDefault("jar", "target/weather-aggregation-api-1.0.0.jar");
+        if (!new File(jar).isFile()) {
+            throw new IllegalStateException(jar + " not found; run mvn package first or pass --app-url");
+        }
+
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.addAll(words(options.getOrDefault("jvm-args", "-Xmx512m")));
+        command.add("-jar");
+        command.add(jar);
+        command.add("--server.port=" + port);
+        command.addAll(appArgs);
+        command.addAll(words(options.getOrDefault("app-args", "")));
+
+        File log = new File("target", "loadtest-app.log");
+        System.out.println("Launching application on port " + port + " (output in " + log + ")");
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log)
+                .start();
+    }
+
+    private static void awaitHealthy(HttpClient client, String baseUrl, Process app) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(90).toNanos();
+        while (System.nanoTime() < deadline) {
+            if (app != null && !app.isAlive()) {
+                throw new IllegalStateException("Application exited with code " + app.exitValue());
+            }
+            if (!health(client, baseUrl).isEmpty()) {
+                return;
+            }
+            Thread.sleep(250);
+        }
+        throw new IllegalStateException("Application at " + baseUrl + " did not become healthy");
+    }
+
+    private static String health(HttpClient client, String baseUrl) {
+        try {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/health")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            return response.statusCode() == 200 ? response.body() : "";
+        } catch (Exception e) {
+            return "";
+        }
+    }
+
+    // Sums a counter over every cache's in-memory tier
+    private static long sum(Pattern counter, String health) {
+        long total = 0;
+        Matcher tier = CACHE_TIER.matcher(health);
+        while (tier.find()) {
+            Matcher value = counter.matcher(tier.group(1));
+            if (value.find()) {
+                total += Long.parseLong(value.group(1));
+            }
+        }
+        return total;
+    }
+
+    private static long first(Pattern pattern, String health) {
+        Matcher matcher = pattern.matcher(health);
+        return matcher.find() ? Long.parseLong(matcher.group(1)) : 0;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static List<String> words(String value) {
+        return value.isBlank() ? List.of() : List.of(value.trim().split("\\s+"));
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            int equals = arg.indexOf('=');
+            if (equals < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, equals), arg.substring(equals + 1));
+            }
+        }
+        return options;
+    }
+
+    private record Result(long[] latencies, int errors, double seconds) {
+        double percentile(double p) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p * latencies.length) - 1;
+            return latencies[Math.max(0, Math.min(index, latencies.length - 1))] / 1e6;
+        }
+    }
+
+    // Request paths in the configured mix, over a fixed set of locations
+    private static final class Workload {
+        private final int locations;
+        private final int[] weights;
+        private final int totalWeight;
+
+        Workload(Map<String, String> options) {
+            this.locations = Integer.parseInt(options.getOrDefault("locations", "200"));
+            this.weights = Arrays.stream(options.getOrDefault("mix", "70,20,10").split(","))
+                    .mapToInt(weight -> Integer.parseInt(weight.trim()))
+                    .toArray();
+            this.totalWeight = Arrays.stream(weights).sum();
+        }
+
+        String nextPath() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            String location = "City" + random.nextInt(locations);
+            int pick = random.nextInt(totalWeight);
+            if (pick < weights[0]) {
+                return "/weather/current?location=" + location;
+            }
+            if (pick < weights[0] + weights[1]) {
+                return "/weather/forecast?location=" + location + "&days=3";
+            }
+            return "/locations/search?q=" + location;
+        }
+    }
+
+    /**
+     * One provider's API on a local port. Answers every endpoint the application calls
+     * with a well-formed payload naming the queried place, after the configured delay.
+     */
+    private static final class Stub {
+        final HttpServer server;
+        final LongAdder requests = new LongAdder();
+        private final long latencyMs;
+        private final long jitterMs;
+        private final double errorRate;
+        private final int payloadBytes;
+        private final int forecastHours;
+
+        Stub(String provider, Map<String, String> options) throws IOException {
+            this.latencyMs = Long.parseLong(option(options, provider, "latency-ms", "50"));
+            this.jitterMs = Long.parseLong(option(options, provider, "jitter-ms", "30"));
+            this.errorRate = Double.parseDouble(option(options, provider, "error-rate", "0.0"));
+            this.payloadBytes = Integer.parseInt(option(options, provider, "payload-bytes", "0"));
+            this.forecastHours = Integer.parseInt(options.getOrDefault("forecast-hours", "24"));
+
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.createContext("/", this::handle);
+            server.start();
+            System.out.println("Stub " + provider + " listening on " + url());
+        }
+
+        String url() {
+            return "http://127.0.0.1:" + server.getAddress().getPort();
+        }
+
+        private static String option(Map<String, String> options, String provider, String name, String fallback) {
+            return options.getOrDefault(provider + "." + name, options.getOrDefault(name, fallback));
+        }
+
+        private void handle(HttpExchange exchange) throws IOException {
+            requests.increment();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            try {
+                Thread.sleep(latencyMs + (jitterMs > 0 ? random.nextLong(jitterMs + 1) : 0));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+            String place = query.getOrDefault("q", "Stubville");
+            String body = switch (exchange.getRequestURI().getPath()) {
+                case "/data/2.5/weather" -> openWeatherCurrent(place);
+                case "/geo/1.0/direct", "/v1/search.json" -> locations(place);
+                case "/v1/current.json" -> weatherApiCurrent(place);
+                case "/v1/forecast.json" -> weatherApiForecast(place, Integer.parseInt(query.getOrDefault("days", "3")));
+                default -> null;
+            };
+
+            int status = body == null ? 404 : random.nextDouble() < errorRate ? 500 : 200;
+            byte[] bytes = (status == 200 ? pad(body) : "{\"error\":{\"message\":\"stub failure\"}}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+
+        // Extra bytes go into an unused field of the last object, which the parsers skip
+        private String pad(String body) {
+            int missing = payloadBytes - body.length();
+            if (missing <= 0) {
+                return body;
+            }
+            int end = body.lastIndexOf('}');
+            return body.substring(0, end) + ",\"padding\":\"" + "x".repeat(missing) + "\"" + body.substring(end);
+        }
+
+        private static Map<String, String> query(String rawQuery) {
+            Map<String, String> params = new HashMap<>();
+            if (rawQuery == null) {
+                return params;
+            }
+            for (String pair : rawQuery.split("&")) {
+                int equals = pair.indexOf('=');
+                if (equals > 0) {
+                    params.put(pair.substring(0, equals),
+                            URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+                }
+            }
+            return params;
+        }
+
+        private static String openWeatherCurrent(String place) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            double[] at = coordinates(place);
+            return String.format(Locale.ROOT, "{\"coord\":{\"lon\":%.4f,\"lat\":%.4f},"
+                    + "\"weather\":[{\"id\":803,\"main\":\"Clouds\",\"description\":\"broken clouds\",\"icon\":\"04d\"}],"
+                    + "\"main\":{\"temp\":%.2f,\"feels_like\":%.2f,\"pressure\":1012,\"humidity\":%d},"
+                    + "\"wind\":{\"speed\":%.2f,\"deg\":240},\"sys\":{\"country\":\"GB\"},\"name\":\"%s\",\"cod\":200}",
+                    at[1], at[0], 10 + random.nextDouble(10), 9 + random.nextDouble(10), 50 + random.nextInt(40),
+                    random.nextDouble(10), place);
+        }
+
+        private static String weatherApiCurrent(String place) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            double[] at = coordinates(place);
+            return String.format(Locale.ROOT, "{\"location\":{\"name\":\"%s\",\"country\":\"United Kingdom\","
+                    + "\"lat\":%.4f,\"lon\":%.4f,\"tz_id\":\"Europe/London\"},"
+                    + "\"current\":{\"temp_c\":%.1f,\"feelslike_c\":%.1f,\"humidity\":%d,\"pressure_mb\":1012.0,"
+                    + "\"wind_kph\":%.1f,\"condition\":{\"text\":\"Partly cloudy\",\"code\":1003}}}",
+                    place, at[0], at[1], 10 + random.nextDouble(10), 9 + random.nextDouble(10), 50 + random.nextInt(40),
+                    random.nextDouble(30));
+        }
+
+        private String weatherApiForecast(String place, int days) {
+            double[] at = coordinates(place);
+            StringBuilder json = new StringBuilder(String.format(Locale.ROOT,
+                    "{\"location\":{\"name\":\"%s\",\"country\":\"United Kingdom\",\"lat\":%.4f,\"lon\":%.4f},"
+                            + "\"forecast\":{\"forecastday\":[", place, at[0], at[1]));
+            for (int day = 0; day < days; day++) {
+                if (day > 0) {
+                    json.append(',');
+                }
+                json.append(String.format(Locale.ROOT, "{\"date\":\"%s\",\"day\":{\"maxtemp_c\":%.1f,\"mintemp_c\":%.1f,"
+                                + "\"avghumidity\":70,\"condition\":{\"text\":\"Partly cloudy\",\"code\":1003}},\"hour\":[",
+                        LocalDate.now().plusDays(day), 15.0 + day, 8.0 + day));
+                for (int hour = 0; hour < forecastHours; hour++) {
+                    if (hour > 0) {
+                        json.append(',');
+                    }
+                    json.append(String.format(Locale.ROOT, "{\"time\":\"%02d:00\",\"temp_c\":%.1f,\"humidity\":70,"
+                            + "\"wind_kph\":12.0,\"chance_of_rain\":20,\"condition\":{\"text\":\"Partly cloudy\"}}",
+                            hour, 10.0 + hour / 4.0));
+                }
+                json.append("]}");
+            }
+            return json.append("]}}").toString();
+        }
+
+        private static String locations(String place) {
+            double[] at = coordinates(place);
+            return String.format(Locale.ROOT, "[{\"name\":\"%s\",\"country\":\"GB\",\"lat\":%.4f,\"lon\":%.4f},"
+                    + "{\"name\":\"%s\",\"country\":\"US\",\"lat\":%.4f,\"lon\":%.4f}]",
+                    place, at[0], at[1], place, -at[0], -at[1]);
+        }
+
+        // A stable, distinct point per place name so places do not share a grid cell in the cache
+        private static double[] coordinates(String place) {
+            int hash = place.toLowerCase(Locale.ROOT).hashCode();
+            return new double[] {((hash & 0xffff) / 65535.0) * 120 - 60, ((hash >>> 16) / 65535.0) * 360 - 180};
+        }
+    }
+}
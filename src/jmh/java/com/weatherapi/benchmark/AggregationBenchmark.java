@@ -0,0 +1,125 @@
+package com.weatherapi.benchmark;
+
+import com.weatherapi.model.WeatherData;
+import com.weatherapi.provider.AggregationStrategy;
+import com.weatherapi.provider.WeatherAggregator;
+import com.weatherapi.provider.WeatherProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import reactor.core.publisher.Mono;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merging provider readings: the full fan-out through deadlines, breakers and
+ * quotas with providers that answer instantly, and the bare combine step.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AggregationBenchmark {
+
+    @Param({"mean", "median", "weighted", "first-n"})
+    String strategy;
+
+    private AnnotationConfigApplicationContext context;
+    private WeatherAggregator aggregator;
+    private AggregationStrategy selected;
+    private final double[] temperatures = {14.6, 14.3, 15.1};
+    private final double[] weights = {1.0, 0.8, 0.95};
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.create(Map.of(
+                "weather.aggregation.strategy", strategy,
+                "weather.aggregation.first-n", "2"));
+        List.of("alpha", "beta", "gamma").forEach(name ->
+                context.registerBean(name, WeatherProvider.class, () -> new FixedProvider(name)));
+        context.register(WeatherAggregator.class);
+        context.refresh();
+
+        aggregator = context.getBean(WeatherAggregator.class);
+        selected = AggregationStrategy.from(strategy);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public WeatherData aggregate() {
+        return aggregator.aggregate("London").block();
+    }
+
+    @Benchmark
+    public double combine() {
+        return selected.combine(temperatures, weights);
+    }
+
+    // Answers immediately with a reading slightly different per provider
+    private static final class FixedProvider implements WeatherProvider {
+        private final String name;
+        private final double offset;
+
+        FixedProvider(String name) {
+            this.name = name;
+            this.offset = name.length() / 10.0;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getDisplayName() {
+            return name;
+        }
+
+        @Override
+        public Mono<WeatherData> fetchCurrentWeather(String location) {
+            return Mono.fromSupplier(() -> reading(location));
+        }
+
+        private WeatherData reading(String location) {
+            WeatherData.Location place = new WeatherData.Location();
+            place.setName(location);
+            place.setCountry("GB");
+            place.setLat(51.51);
+            place.setLon(-0.13);
+
+            WeatherData.CurrentWeather current = new WeatherData.CurrentWeather();
+            current.setTemperature(14.0 + offset);
+            current.setFeelsLike(13.0 + offset);
+            current.setHumidity(72);
+            current.setPressure(1012);
+            current.setWindSpeed(5.1 + offset);
+            current.setCondition("Clouds");
+            current.setDescription("broken clouds");
+
+            WeatherData data = new WeatherData();
+            data.setLocation(place);
+            data.setCurrent(current);
+            data.setSources(List.of(name));
+            data.setLastUpdated("2025-10-18T11:00:00");
+            return data;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.weatherapi.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Compares two saved JMH runs benchmark by benchmark:
+ *
+ *   mvn -Pbenchmark test-compile exec:exec -Djmh.runner=com.weatherapi.benchmark.BenchmarkComparison
+ *
+ * With no arguments the two newest files in jmh-results/ are compared; otherwise
+ * pass the baseline and the candidate result files in -Djmh.args. Changes within
+ * the combined error bars are marked "~" as noise.
+ */
+public class BenchmarkComparison {
+
+    public static void main(String[] args) throws IOException {
+        Path baseline;
+        Path candidate;
+        if (args.length >= 2) {
+            baseline = Path.of(args[0]);
+            candidate = Path.of(args[1]);
+        } else {
+            List<Path> runs;
+            try (Stream<Path> files = Files.list(Path.of("jmh-results"))) {
+                runs = files.filter(file -> file.toString().endsWith(".json")).sorted().toList();
+            }
+            if (runs.size() < 2) {
+                System.err.println("Need two result files in jmh-results/ to compare");
+                return;
+            }
+            baseline = runs.get(runs.size() - 2);
+            candidate = runs.get(runs.size() - 1);
+        }
+
+        Map<String, JsonNode> before = read(baseline);
+        Map<String, JsonNode> after = read(candidate);
+
+        System.out.println("Baseline:  " + baseline);
+        System.out.println("Candidate: " + candidate);
+        System.out.println();
+        System.out.println(String.format(Locale.ROOT, "%-70s %14s %14s %9s", "Benchmark", "Baseline", "Candidate", "Change"));
+
+        after.forEach((name, result) -> {
+            JsonNode metric = result.get("primaryMetric");
+            String unit = metric.get("scoreUnit").asText();
+            double score = metric.get("score").asDouble();
+
+            JsonNode previous = before.get(name);
+            if (previous == null) {
+                System.out.println(String.format(Locale.ROOT, "%-70s %14s %14s %9s",
+                        name, "-", format(score, unit), "new"));
+                return;
+            }
+
+            JsonNode previousMetric = previous.get("primaryMetric");
+            double previousScore = previousMetric.get("score").asDouble();
+            double noise = error(previousMetric) + error(metric);
+            double change = (score - previousScore) / previousScore * 100;
+            String marker = Math.abs(score - previousScore) <= noise ? " ~" : "";
+
+            System.out.println(String.format(Locale.ROOT, "%-70s %14s %14s %+8.1f%%%s",
+                    name, format(previousScore, unit), format(score, unit), change, marker));
+        });
+    }
+
+    // Keyed by benchmark name plus its parameters, e.g. "ParsingBenchmark.weatherApiForecast days=7"
+    private static Map<String, JsonNode> read(Path file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file.toFile())) {
+            StringBuilder name = new StringBuilder(result.get("benchmark").asText()
+                    .replace("com.weatherapi.benchmark.", ""));
+            JsonNode params = result.get("params");
+            if (params != null) {
+                params.fields().forEachRemaining(param ->
+                        name.append(' ').append(param.getKey()).append('=').append(param.getValue().asText()));
+            }
+            results.put(name.toString(), result);
+        }
+        return results;
+    }
+
+    private static double error(JsonNode metric) {
+        double error = metric.get("scoreError").asDouble();
+        return Double.isNaN(error) ? 0 : error;
+    }
+
+    private static String format(double score, String unit) {
+        return String.format(Locale.ROOT, "%.3f %s", score, unit);
+    }
+}
@@ -0,0 +1,96 @@
+package com.weatherapi.benchmark;
+
+import com.weatherapi.cache.CacheRefresher;
+import com.weatherapi.cache.LocationKeyResolver;
+import com.weatherapi.client.UpstreamCalls;
+import com.weatherapi.ratelimit.UpstreamRateLimiter;
+import com.weatherapi.service.RequestCoalescer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.core.io.support.ResourcePropertySource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+/**
+ * Minimal Spring context for benchmarks: the application's own properties and the
+ * upstream-call plumbing, with WebClients that replay recorded provider payloads
+ * instead of opening connections. Caching is off (every call is a miss) and
+ * outbound quotas are unlimited so neither hides the code being measured.
+ */
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    // Callers register the components under test and refresh the returned context
+    static AnnotationConfigApplicationContext create(Map<String, Object> overrides) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        try {
+            context.getEnvironment().getPropertySources()
+                    .addFirst(new ResourcePropertySource("classpath:application.properties"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", overrides));
+
+        WebClient openWeather = replaying(Map.of(
+                "/data/2.5/weather", payload("openweather-current.json")));
+        WebClient weatherApi = replaying(Map.of(
+                "/v1/current.json", payload("weatherapi-current.json"),
+                "/v1/forecast.json", payload("weatherapi-forecast.json")));
+
+        context.registerBean("openWeatherWebClient", WebClient.class, () -> openWeather);
+        context.registerBean("weatherApiWebClient", WebClient.class, () -> weatherApi);
+        context.registerBean(CacheManager.class, NoOpCacheManager::new);
+        context.registerBean(MeterRegistry.class, SimpleMeterRegistry::new);
+        context.registerBean(UpstreamRateLimiter.class, () -> new UpstreamRateLimiter(provider -> null));
+        context.register(UpstreamCalls.class, RequestCoalescer.class, CacheRefresher.class, LocationKeyResolver.class);
+        return context;
+    }
+
+    static byte[] payload(String name) {
+        try (InputStream in = BenchmarkContext.class.getResourceAsStream("/payloads/" + name)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing payload " + name);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Strategies are built once; ClientResponse.create(status) would rebuild every codec per response
+    private static WebClient replaying(Map<String, byte[]> payloadsByPath) {
+        ExchangeStrategies strategies = ExchangeStrategies.withDefaults();
+        return WebClient.builder()
+                .exchangeStrategies(strategies)
+                .exchangeFunction(request -> {
+                    byte[] body = payloadsByPath.get(request.url().getPath());
+                    if (body == null) {
+                        return Mono.just(ClientResponse.create(HttpStatus.NOT_FOUND, strategies).build());
+                    }
+                    DataBuffer buffer = DefaultDataBufferFactory.sharedInstance.wrap(body);
+                    return Mono.just(ClientResponse.create(HttpStatus.OK, strategies)
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .body(Flux.just(buffer))
+                            .build());
+                })
+                .build();
+    }
+}
@@ -0,0 +1,101 @@
+package com.weatherapi.benchmark;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.weatherapi.cache.CacheRefresher;
+import com.weatherapi.cache.TieredCaffeineCache;
+import com.weatherapi.model.WeatherData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The weather cache as CacheConfig builds it (async Caffeine behind the tiered
+ * adapter, L1 only) with many request threads at once. Keys are drawn from a
+ * key space either well inside the default 2 MB bound (all hits) or several times
+ * larger (misses that insert and evict).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class CacheBenchmark {
+
+    private static final long MAX_BYTES = 2 * 1024 * 1024;
+    private static final int PREFILLED = 1000;
+
+    @Param({"1000", "50000"})
+    int keySpace;
+
+    private TieredCaffeineCache cache;
+    private String[] keys;
+    private WeatherData value;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Duration ttl = Duration.ofMinutes(10);
+        cache = new TieredCaffeineCache("weather",
+                Caffeine.newBuilder()
+                        .expireAfter(TieredCaffeineCache.expireAfterWrite(ttl))
+                        .maximumWeight(MAX_BYTES)
+                        .weigher(TieredCaffeineCache::weigh)
+                        .recordStats()
+                        .buildAsync(),
+                true, ttl, Duration.ofMinutes(8), new CacheRefresher(), null);
+
+        value = new WeatherData();
+        WeatherData.Location location = new WeatherData.Location();
+        location.setName("London");
+        location.setCountry("United Kingdom");
+        location.setLat(51.52);
+        location.setLon(-0.11);
+        value.setLocation(location);
+        WeatherData.CurrentWeather current = new WeatherData.CurrentWeather();
+        current.setTemperature(14.5);
+        current.setFeelsLike(13.2);
+        current.setHumidity(72);
+        current.setPressure(1012);
+        current.setWindSpeed(4.1);
+        current.setCondition("Partly cloudy");
+        current.setDescription("partly cloudy");
+        value.setCurrent(current);
+        value.setSources(List.of("OpenWeatherMap", "WeatherAPI"));
+        value.setLastUpdated("2025-10-18T11:00:00");
+
+        keys = new String[keySpace];
+        for (int i = 0; i < keySpace; i++) {
+            keys[i] = "gh:gcp" + i;
+            if (i < PREFILLED) {
+                cache.put(keys[i], value);
+            }
+        }
+    }
+
+    // A lookup as @Cacheable does it, filling the entry on a miss
+    @Benchmark
+    public Object getOrLoad() {
+        String key = keys[ThreadLocalRandom.current().nextInt(keys.length)];
+        Object cached = cache.get(key);
+        if (cached == null) {
+            cache.put(key, value);
+            return value;
+        }
+        return cached;
+    }
+}
@@ -0,0 +1,82 @@
+package com.weatherapi.benchmark;
+
+import com.weatherapi.model.ForecastData;
+import com.weatherapi.model.WeatherData;
+import com.weatherapi.provider.OpenWeatherProvider;
+import com.weatherapi.provider.WeatherAggregator;
+import com.weatherapi.provider.WeatherApiProvider;
+import com.weatherapi.service.WeatherService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding recorded provider responses into the API model: body buffering, the
+ * streaming JSON parse and the upstream-call wrapper around it. The forecast
+ * payload holds seven days with hourly data, so smaller day counts also measure
+ * how cheaply the unused part is skipped.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParsingBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Providers {
+        AnnotationConfigApplicationContext context;
+        OpenWeatherProvider openWeather;
+        WeatherApiProvider weatherApi;
+        WeatherService weatherService;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            context = BenchmarkContext.create(Map.of());
+            context.register(OpenWeatherProvider.class, WeatherApiProvider.class, WeatherAggregator.class, WeatherService.class);
+            context.refresh();
+            openWeather = context.getBean(OpenWeatherProvider.class);
+            weatherApi = context.getBean(WeatherApiProvider.class);
+            weatherService = context.getBean(WeatherService.class);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ForecastRange {
+        @Param({"3", "7"})
+        int days;
+    }
+
+    @Benchmark
+    public WeatherData openWeatherCurrent(Providers providers) {
+        return providers.openWeather.fetchCurrentWeather("London").block();
+    }
+
+    @Benchmark
+    public WeatherData weatherApiCurrent(Providers providers) {
+        return providers.weatherApi.fetchCurrentWeather("London").block();
+    }
+
+    @Benchmark
+    public ForecastData weatherApiForecast(Providers providers, ForecastRange range) {
+        return providers.weatherService.getForecastReactive("London", range.days).block();
+    }
+}
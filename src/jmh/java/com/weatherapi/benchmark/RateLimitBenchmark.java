@@ -0,0 +1,65 @@
+package com.weatherapi.benchmark;
+
+import com.weatherapi.ratelimit.KeyedRateLimiter;
+import com.weatherapi.ratelimit.RateLimitDecision;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-request work of RateLimitInterceptor (one acquire, whose decision also
+ * carries the remaining count for the response header) from many threads. One hot client
+ * puts every thread on the same bucket; many clients spread them across keys.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class RateLimitBenchmark {
+
+    private static final int CLIENTS = 10_000;
+
+    private KeyedRateLimiter limiter;
+    private String[] keys;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Same shape as the defaults in application.properties
+        limiter = new KeyedRateLimiter(10, Duration.ofSeconds(60), 100_000, Duration.ofSeconds(600));
+
+        keys = new String[CLIENTS];
+        for (int i = 0; i < CLIENTS; i++) {
+            keys[i] = "ip:10.0." + (i / 256) + "." + (i % 256) + "|weather";
+        }
+    }
+
+    @Benchmark
+    public long oneHotClient() {
+        return check(keys[0]);
+    }
+
+    @Benchmark
+    public long manyClients() {
+        return check(keys[ThreadLocalRandom.current().nextInt(CLIENTS)]);
+    }
+
+    private long check(String key) {
+        RateLimitDecision decision = limiter.tryAcquire(key);
+        return decision.remaining() + (decision.allowed() ? 1 : 0);
+    }
+}
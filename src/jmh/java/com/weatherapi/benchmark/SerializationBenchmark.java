@@ -0,0 +1,73 @@
+package com.weatherapi.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weatherapi.model.ApiResponse;
+import com.weatherapi.model.ForecastData;
+import com.weatherapi.model.WeatherData;
+import com.weatherapi.provider.OpenWeatherProvider;
+import com.weatherapi.provider.WeatherAggregator;
+import com.weatherapi.provider.WeatherApiProvider;
+import com.weatherapi.service.WeatherService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing the ApiResponse envelope to JSON bytes with an ObjectMapper configured
+ * the way Spring Boot configures the one behind the controllers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private ApiResponse<WeatherData> current;
+    private ApiResponse<ForecastData> forecast;
+    private ApiResponse<Object> error;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        // Real responses decoded from the recorded payloads
+        try (AnnotationConfigApplicationContext context = BenchmarkContext.create(Map.of())) {
+            context.register(OpenWeatherProvider.class, WeatherApiProvider.class, WeatherAggregator.class, WeatherService.class);
+            context.refresh();
+            WeatherService weatherService = context.getBean(WeatherService.class);
+            current = ApiResponse.success(weatherService.getCurrentWeatherReactive("London").block());
+            forecast = ApiResponse.success(weatherService.getForecastReactive("London", 7).block());
+        }
+        error = ApiResponse.error("Rate limit exceeded. Please try again later.");
+    }
+
+    @Benchmark
+    public byte[] currentWeather() throws Exception {
+        return objectMapper.writeValueAsBytes(current);
+    }
+
+    @Benchmark
+    public byte[] sevenDayForecast() throws Exception {
+        return objectMapper.writeValueAsBytes(forecast);
+    }
+
+    @Benchmark
+    public byte[] errorResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(error);
+    }
+}
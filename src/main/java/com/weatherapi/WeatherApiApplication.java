@@ -1,14 +1,21 @@
 package com.weatherapi;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.ConfigurableApplicationContext;
 
 @SpringBootApplication
 @EnableCaching
 public class WeatherApiApplication {
+
+    private static final Logger log = LoggerFactory.getLogger(WeatherApiApplication.class);
+
     public static void main(String[] args) {
-        SpringApplication.run(WeatherApiApplication.class, args);
-        System.out.println("✅ Weather API Started Successfully on http://localhost:8080");
+        ConfigurableApplicationContext context = SpringApplication.run(WeatherApiApplication.class, args);
+        log.info("✅ Weather API started on http://localhost:{}",
+                context.getEnvironment().getProperty("local.server.port"));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,64 @@
+package com.weatherapi.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Runs background reloads for cache entries that are past their soft TTL.
+ * Services register a loader per cache name; at most one reload per key is
+ * in flight, and the stale entry keeps being served until it completes.
+ * A loader with no real value to offer (e.g. only fallback data) signals an
+ * error; the entry is then left as it was, never downgraded. A loader that
+ * stores the value itself completes empty, and nothing more is put.
+ */
+@Component
+public class CacheRefresher {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheRefresher.class);
+
+    private final Map<String, Function<Object, Mono<?>>> loaders = new ConcurrentHashMap<>();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final Map<String, LongAdder> refreshes = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+
+    public void register(String cacheName, Function<Object, Mono<?>> loader) {
+        loaders.put(cacheName, loader);
+    }
+
+    public void refresh(Cache cache, Object key) {
+        Function<Object, Mono<?>> loader = loaders.get(cache.getName());
+        String refreshKey = cache.getName() + ":" + key;
+
+        if (loader == null || !refreshing.add(refreshKey)) {
+            return;
+        }
+
+        refreshes.computeIfAbsent(cache.getName(), name -> new LongAdder()).increment();
+        loader.apply(key)
+                .doFinally(signal -> refreshing.remove(refreshKey))
+                .subscribe(
+                        value -> cache.put(key, value),
+                        error -> {
+                            failures.computeIfAbsent(cache.getName(), name -> new LongAdder()).increment();
+                            log.warn("refresh key={} failed: {}", refreshKey, error.getMessage());
+                        });
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new TreeMap<>();
+        refreshes.forEach((name, count) -> stats.put(name, Map.of(
+                "refreshes", count.sum(),
+                "failures", failures.getOrDefault(name, new LongAdder()).sum()
+        )));
+        return stats;
+    }
+}
@@ -0,0 +1,275 @@
+package com.weatherapi.cache;
+
+import com.weatherapi.model.ForecastData;
+import com.weatherapi.model.LocationData;
+import com.weatherapi.model.WeatherData;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary encoding of cached values for the persistent tier. Each record
+ * starts with a type tag and a format version; nullable fields carry a presence
+ * byte. Values of any other type are not persisted.
+ */
+public final class CacheValueCodec {
+
+    private static final byte WEATHER = 1;
+    private static final byte FORECAST = 2;
+    private static final byte LOCATIONS = 3;
+    private static final byte VERSION = 1;
+
+    private CacheValueCodec() {
+    }
+
+    public static boolean supports(Object value) {
+        return value instanceof WeatherData || value instanceof CachedForecast || value instanceof LocationData;
+    }
+
+    public static byte[] encode(Object value) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            if (value instanceof WeatherData weather) {
+                out.writeByte(WEATHER);
+                out.writeByte(VERSION);
+                writeWeather(out, weather);
+            } else if (value instanceof CachedForecast forecast) {
+                out.writeByte(FORECAST);
+                out.writeByte(VERSION);
+                out.writeShort(forecast.getRequestedDays());
+                writeForecast(out, forecast.getData());
+            } else if (value instanceof LocationData locations) {
+                out.writeByte(LOCATIONS);
+                out.writeByte(VERSION);
+                writeLocations(out, locations);
+            } else {
+                throw new IllegalArgumentException("Unsupported cache value: " + value.getClass().getName());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    // Returns null for records written by an unknown format version
+    public static Object decode(byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            byte type = in.readByte();
+            if (in.readByte() != VERSION) {
+                return null;
+            }
+            return switch (type) {
+                case WEATHER -> readWeather(in);
+                case FORECAST -> {
+                    int requestedDays = in.readShort();
+                    yield new CachedForecast(readForecast(in), requestedDays);
+                }
+                case LOCATIONS -> readLocations(in);
+                default -> null;
+            };
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeWeather(DataOutputStream out, WeatherData data) throws IOException {
+        WeatherData.Location location = data.getLocation();
+        out.writeBoolean(location != null);
+        if (location != null) {
+            writeString(out, location.getName());
+            writeString(out, location.getCountry());
+            writeDouble(out, location.getLat());
+            writeDouble(out, location.getLon());
+        }
+
+        WeatherData.CurrentWeather current = data.getCurrent();
+        out.writeBoolean(current != null);
+        if (current != null) {
+            writeDouble(out, current.getTemperature());
+            writeDouble(out, current.getFeelsLike());
+            writeInt(out, current.getHumidity());
+            writeInt(out, current.getPressure());
+            writeDouble(out, current.getWindSpeed());
+            writeString(out, current.getCondition());
+            writeString(out, current.getDescription());
+        }
+
+        writeStrings(out, data.getSources());
+        writeString(out, data.getLastUpdated());
+    }
+
+    private static WeatherData readWeather(DataInputStream in) throws IOException {
+        WeatherData data = new WeatherData();
+
+        if (in.readBoolean()) {
+            WeatherData.Location location = new WeatherData.Location();
+            location.setName(readString(in));
+            location.setCountry(readString(in));
+            location.setLat(readDouble(in));
+            location.setLon(readDouble(in));
+            data.setLocation(location);
+        }
+
+        if (in.readBoolean()) {
+            WeatherData.CurrentWeather current = new WeatherData.CurrentWeather();
+            current.setTemperature(readDouble(in));
+            current.setFeelsLike(readDouble(in));
+            current.setHumidity(readInt(in));
+            current.setPressure(readInt(in));
+            current.setWindSpeed(readDouble(in));
+            current.setCondition(readString(in));
+            current.setDescription(readString(in));
+            data.setCurrent(current);
+        }
+
+        data.setSources(readStrings(in));
+        data.setLastUpdated(readString(in));
+        return data;
+    }
+
+    private static void writeForecast(DataOutputStream out, ForecastData data) throws IOException {
+        ForecastData.Location location = data.getLocation();
+        out.writeBoolean(location != null);
+        if (location != null) {
+            writeString(out, location.getName());
+            writeString(out, location.getCountry());
+            writeDouble(out, location.getLat());
+            writeDouble(out, location.getLon());
+        }
+
+        List<ForecastData.ForecastDay> days = data.getForecast() != null ? data.getForecast() : List.of();
+        out.writeShort(days.size());
+        for (ForecastData.ForecastDay day : days) {
+            writeString(out, day.getDate());
+            writeDouble(out, day.getMaxTemp());
+            writeDouble(out, day.getMinTemp());
+            writeString(out, day.getCondition());
+            writeInt(out, day.getHumidity());
+        }
+
+        writeStrings(out, data.getSources());
+    }
+
+    private static ForecastData readForecast(DataInputStream in) throws IOException {
+        ForecastData data = new ForecastData();
+
+        if (in.readBoolean()) {
+            ForecastData.Location location = new ForecastData.Location();
+            location.setName(readString(in));
+            location.setCountry(readString(in));
+            location.setLat(readDouble(in));
+            location.setLon(readDouble(in));
+            data.setLocation(location);
+        }
+
+        int count = in.readShort();
+        List<ForecastData.ForecastDay> days = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ForecastData.ForecastDay day = new ForecastData.ForecastDay();
+            day.setDate(readString(in));
+            day.setMaxTemp(readDouble(in));
+            day.setMinTemp(readDouble(in));
+            day.setCondition(readString(in));
+            day.setHumidity(readInt(in));
+            days.add(day);
+        }
+        data.setForecast(days);
+
+        data.setSources(readStrings(in));
+        return data;
+    }
+
+    private static void writeLocations(DataOutputStream out, LocationData data) throws IOException {
+        List<LocationData.Location> locations = data.getLocations() != null ? data.getLocations() : List.of();
+        out.writeShort(locations.size());
+        for (LocationData.Location location : locations) {
+            writeString(out, location.getId());
+            writeString(out, location.getName());
+            writeString(out, location.getCountry());
+            writeDouble(out, location.getLat());
+            writeDouble(out, location.getLon());
+            writeString(out, location.getSource());
+        }
+        writeInt(out, data.getCount());
+    }
+
+    private static LocationData readLocations(DataInputStream in) throws IOException {
+        int size = in.readShort();
+        List<LocationData.Location> locations = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            LocationData.Location location = new LocationData.Location();
+            location.setId(readString(in));
+            location.setName(readString(in));
+            location.setCountry(readString(in));
+            location.setLat(readDouble(in));
+            location.setLon(readDouble(in));
+            location.setSource(readString(in));
+            locations.add(location);
+        }
+
+        LocationData data = new LocationData();
+        data.setLocations(locations);
+        data.setCount(readInt(in));
+        return data;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeDouble(DataOutputStream out, Double value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeDouble(value);
+        }
+    }
+
+    private static Double readDouble(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readDouble() : null;
+    }
+
+    private static void writeInt(DataOutputStream out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    private static Integer readInt(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        out.writeBoolean(values != null);
+        if (values != null) {
+            out.writeShort(values.size());
+            for (String value : values) {
+                writeString(out, value);
+            }
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        int size = in.readShort();
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,122 @@
+package com.weatherapi.cache;
+
+import com.weatherapi.model.ForecastData;
+import com.weatherapi.model.WeatherData;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Forecast cache entry: the widest range fetched for a location together with
+ * the number of days that was requested upstream. The provider may return fewer
+ * days than asked for, so coverage is judged by the requested span, not the list size.
+ *
+ * Immutable and stored column-wise in primitive arrays, with dates and conditions
+ * interned; ForecastData is rebuilt on every read.
+ */
+public final class CachedForecast {
+
+    private final int requestedDays;
+    private final boolean hasLocation;
+    private final String name;
+    private final String country;
+    private final double lat;
+    private final double lon;
+    // null when the forecast list was null
+    private final String[] dates;
+    private final double[] maxTemps;
+    private final double[] minTemps;
+    private final String[] conditions;
+    private final int[] humidity;
+    private final List<String> sources;
+
+    public CachedForecast(ForecastData data, int requestedDays) {
+        this.requestedDays = requestedDays;
+
+        ForecastData.Location location = data.getLocation();
+        this.hasLocation = location != null;
+        this.name = location != null ? location.getName() : null;
+        this.country = location != null ? CompactValues.intern(location.getCountry()) : null;
+        this.lat = location != null ? CompactValues.toPrimitive(location.getLat()) : Double.NaN;
+        this.lon = location != null ? CompactValues.toPrimitive(location.getLon()) : Double.NaN;
+
+        List<ForecastData.ForecastDay> days = data.getForecast();
+        int size = days != null ? days.size() : 0;
+        this.dates = days != null ? new String[size] : null;
+        this.maxTemps = new double[size];
+        this.minTemps = new double[size];
+        this.conditions = new String[size];
+        this.humidity = new int[size];
+        for (int i = 0; i < size; i++) {
+            ForecastData.ForecastDay day = days.get(i);
+            dates[i] = CompactValues.intern(day.getDate());
+            maxTemps[i] = CompactValues.toPrimitive(day.getMaxTemp());
+            minTemps[i] = CompactValues.toPrimitive(day.getMinTemp());
+            conditions[i] = CompactValues.intern(day.getCondition());
+            humidity[i] = CompactValues.toPrimitive(day.getHumidity());
+        }
+
+        this.sources = CompactValues.internSources(data.getSources());
+    }
+
+    public ForecastData getData() {
+        return build(dates != null ? dates.length : 0);
+    }
+
+    public int getRequestedDays() { return requestedDays; }
+
+    public ForecastData.Location getLocation() {
+        return hasLocation ? location() : null;
+    }
+
+    public boolean isFallback() {
+        return sources != null && sources.contains(WeatherData.FALLBACK_SOURCE);
+    }
+
+    public boolean covers(int days) {
+        return days <= requestedDays;
+    }
+
+    // The first `days` days of the entry
+    public ForecastData slice(int days) {
+        return build(dates != null ? Math.min(days, dates.length) : 0);
+    }
+
+    int estimatedBytes() {
+        int size = humidity.length;
+        // Header, 8 references, an int, 2 doubles and a boolean, plus the unshared name and the columns
+        return 16 + 8 * 4 + 4 + 2 * 8 + 1 + CompactValues.string(name)
+                + 2 * CompactValues.arrays(size, 4) + 2 * CompactValues.arrays(size, 8)
+                + CompactValues.arrays(size, 4);
+    }
+
+    private ForecastData build(int days) {
+        ForecastData data = new ForecastData();
+        if (hasLocation) {
+            data.setLocation(location());
+        }
+        if (dates != null) {
+            List<ForecastData.ForecastDay> forecast = new ArrayList<>(days);
+            for (int i = 0; i < days; i++) {
+                ForecastData.ForecastDay day = new ForecastData.ForecastDay();
+                day.setDate(dates[i]);
+                day.setMaxTemp(CompactValues.toBoxed(maxTemps[i]));
+                day.setMinTemp(CompactValues.toBoxed(minTemps[i]));
+                day.setCondition(conditions[i]);
+                day.setHumidity(CompactValues.toBoxed(humidity[i]));
+                forecast.add(day);
+            }
+            data.setForecast(forecast);
+        }
+        data.setSources(sources);
+        return data;
+    }
+
+    private ForecastData.Location location() {
+        ForecastData.Location location = new ForecastData.Location();
+        location.setName(name);
+        location.setCountry(country);
+        location.setLat(CompactValues.toBoxed(lat));
+        location.setLon(CompactValues.toBoxed(lon));
+        return location;
+    }
+}
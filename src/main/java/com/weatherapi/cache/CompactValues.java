@@ -0,0 +1,252 @@
+package com.weatherapi.cache;
+
+import com.weatherapi.model.LocationData;
+import com.weatherapi.model.WeatherData;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Heap-compact, immutable forms of the models held in the in-memory cache tier.
+ * Numbers are primitives (NaN / MIN_VALUE stand for null), conditions, countries
+ * and source lists are shared instances, and timestamps are epoch millis. The
+ * response models are rebuilt from them on every read, so callers can never
+ * modify a cached entry through what they were given.
+ *
+ * Forecasts are cached as CachedForecast, which is compact itself.
+ */
+final class CompactValues {
+
+    static final int NO_INT = Integer.MIN_VALUE;
+    static final long NO_TIME = Long.MIN_VALUE;
+
+    // Approximate sizes with compressed oops: object header, reference, array header, String object
+    private static final int OBJECT = 16;
+    private static final int REFERENCE = 4;
+    private static final int ARRAY = 16;
+    private static final int STRING = 24;
+
+    // Source lists come from a handful of provider combinations
+    private static final Map<List<String>, List<String>> SOURCE_LISTS = new ConcurrentHashMap<>();
+
+    private CompactValues() {
+    }
+
+    static Object compact(Object value) {
+        if (value instanceof WeatherData weather) {
+            return CompactWeather.of(weather);
+        }
+        if (value instanceof LocationData locations) {
+            return CompactLocations.of(locations);
+        }
+        return value;
+    }
+
+    static Object expand(Object value) {
+        if (value instanceof CompactWeather weather) {
+            return weather.expand();
+        }
+        if (value instanceof CompactLocations locations) {
+            return locations.expand();
+        }
+        return value;
+    }
+
+    // Caffeine weigher: estimated retained bytes of a key and its stored value
+    static int weigh(Object key, Object value) {
+        int weight = key instanceof String text ? string(text) : OBJECT;
+        if (value instanceof CompactWeather weather) {
+            weight += weather.estimatedBytes();
+        } else if (value instanceof CompactLocations locations) {
+            weight += locations.estimatedBytes();
+        } else if (value instanceof CachedForecast forecast) {
+            weight += forecast.estimatedBytes();
+        } else {
+            weight += OBJECT;
+        }
+        return weight;
+    }
+
+    // Unshared strings only; interned ones are paid for once, not per entry
+    static int string(String value) {
+        return value == null ? 0 : STRING + ARRAY + value.length();
+    }
+
+    static int strings(String[] values) {
+        int bytes = ARRAY + REFERENCE * values.length;
+        for (String value : values) {
+            bytes += string(value);
+        }
+        return bytes;
+    }
+
+    static int arrays(int count, int elementBytes) {
+        return ARRAY + count * elementBytes;
+    }
+
+    static String intern(String value) {
+        return value != null ? value.intern() : null;
+    }
+
+    static List<String> internSources(List<String> sources) {
+        if (sources == null) {
+            return null;
+        }
+        List<String> copy = sources.stream().map(CompactValues::intern).toList();
+        return SOURCE_LISTS.computeIfAbsent(copy, key -> copy);
+    }
+
+    static double toPrimitive(Double value) {
+        return value != null ? value : Double.NaN;
+    }
+
+    static Double toBoxed(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+    static int toPrimitive(Integer value) {
+        return value != null ? value : NO_INT;
+    }
+
+    static Integer toBoxed(int value) {
+        return value != NO_INT ? value : null;
+    }
+
+    // lastUpdated is a LocalDateTime.toString() in the server's zone
+    static long toEpochMillis(String timestamp) {
+        if (timestamp == null) {
+            return NO_TIME;
+        }
+        try {
+            return LocalDateTime.parse(timestamp).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return NO_TIME;
+        }
+    }
+
+    static String toTimestamp(long epochMillis) {
+        return epochMillis != NO_TIME
+                ? LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault()).toString()
+                : null;
+    }
+
+    record CompactWeather(boolean hasLocation, String name, String country, double lat, double lon,
+                          boolean hasCurrent, double temperature, double feelsLike, int humidity, int pressure,
+                          double windSpeed, String condition, String description,
+                          List<String> sources, long lastUpdated) {
+
+        static CompactWeather of(WeatherData data) {
+            WeatherData.Location location = data.getLocation();
+            WeatherData.CurrentWeather current = data.getCurrent();
+            return new CompactWeather(
+                    location != null,
+                    location != null ? location.getName() : null,
+                    location != null ? intern(location.getCountry()) : null,
+                    location != null ? toPrimitive(location.getLat()) : Double.NaN,
+                    location != null ? toPrimitive(location.getLon()) : Double.NaN,
+                    current != null,
+                    current != null ? toPrimitive(current.getTemperature()) : Double.NaN,
+                    current != null ? toPrimitive(current.getFeelsLike()) : Double.NaN,
+                    current != null ? toPrimitive(current.getHumidity()) : NO_INT,
+                    current != null ? toPrimitive(current.getPressure()) : NO_INT,
+                    current != null ? toPrimitive(current.getWindSpeed()) : Double.NaN,
+                    current != null ? intern(current.getCondition()) : null,
+                    current != null ? intern(current.getDescription()) : null,
+                    internSources(data.getSources()),
+                    toEpochMillis(data.getLastUpdated()));
+        }
+
+        WeatherData expand() {
+            WeatherData data = new WeatherData();
+            if (hasLocation) {
+                WeatherData.Location location = new WeatherData.Location();
+                location.setName(name);
+                location.setCountry(country);
+                location.setLat(toBoxed(lat));
+                location.setLon(toBoxed(lon));
+                data.setLocation(location);
+            }
+            if (hasCurrent) {
+                WeatherData.CurrentWeather current = new WeatherData.CurrentWeather();
+                current.setTemperature(toBoxed(temperature));
+                current.setFeelsLike(toBoxed(feelsLike));
+                current.setHumidity(toBoxed(humidity));
+                current.setPressure(toBoxed(pressure));
+                current.setWindSpeed(toBoxed(windSpeed));
+                current.setCondition(condition);
+                current.setDescription(description);
+                data.setCurrent(current);
+            }
+            data.setSources(sources);
+            data.setLastUpdated(toTimestamp(lastUpdated));
+            return data;
+        }
+
+        int estimatedBytes() {
+            // Header, 5 references, 5 doubles, 2 ints, a long and 2 booleans, plus the unshared name
+            return OBJECT + 5 * REFERENCE + 5 * 8 + 2 * 4 + 8 + 2 + string(name);
+        }
+    }
+
+    record CompactLocations(String[] ids, String[] names, String[] countries, double[] lats, double[] lons,
+                            String[] sources, int count) {
+
+        static CompactLocations of(LocationData data) {
+            if (data.getLocations() == null) {
+                return new CompactLocations(null, null, null, null, null, null, toPrimitive(data.getCount()));
+            }
+
+            int size = data.getLocations().size();
+            String[] ids = new String[size];
+            String[] names = new String[size];
+            String[] countries = new String[size];
+            double[] lats = new double[size];
+            double[] lons = new double[size];
+            String[] sources = new String[size];
+            for (int i = 0; i < size; i++) {
+                LocationData.Location location = data.getLocations().get(i);
+                ids[i] = location.getId();
+                names[i] = location.getName();
+                countries[i] = intern(location.getCountry());
+                lats[i] = toPrimitive(location.getLat());
+                lons[i] = toPrimitive(location.getLon());
+                sources[i] = intern(location.getSource());
+            }
+            return new CompactLocations(ids, names, countries, lats, lons, sources, toPrimitive(data.getCount()));
+        }
+
+        LocationData expand() {
+            LocationData data = new LocationData();
+            if (names != null) {
+                List<LocationData.Location> locations = new ArrayList<>(names.length);
+                for (int i = 0; i < names.length; i++) {
+                    LocationData.Location location = new LocationData.Location();
+                    location.setId(ids[i]);
+                    location.setName(names[i]);
+                    location.setCountry(countries[i]);
+                    location.setLat(toBoxed(lats[i]));
+                    location.setLon(toBoxed(lons[i]));
+                    location.setSource(sources[i]);
+                    locations.add(location);
+                }
+                data.setLocations(locations);
+            }
+            data.setCount(toBoxed(count));
+            return data;
+        }
+
+        int estimatedBytes() {
+            int bytes = OBJECT + 6 * REFERENCE + 4;
+            if (names != null) {
+                int size = names.length;
+                bytes += strings(ids) + strings(names) + 2 * arrays(size, REFERENCE) + 2 * arrays(size, 8);
+            }
+            return bytes;
+        }
+    }
+}
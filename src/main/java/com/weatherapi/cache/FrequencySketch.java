@@ -0,0 +1,132 @@
+package com.weatherapi.cache;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-min sketch of how often keys are seen, in the style of TinyLFU: four rows
+ * of counters indexed by independent hashes, a key's estimate being its smallest
+ * counter. Only the counters holding that minimum are raised (conservative update),
+ * which keeps collisions from inflating estimates, and all counters are halved once
+ * sampleSize increments have been recorded so that past popularity fades.
+ *
+ * Counters are 16 bits, four to a long, and are raised with compare-and-set on their
+ * word, so recording a request takes no lock and allocates nothing. The price is
+ * approximate counting under contention: simultaneous increments of one key may
+ * count once, and an increment racing a halving may land unhalved. Popularity
+ * ranking only needs relative counts, which these slips do not change materially.
+ *
+ * Fixed size regardless of how many distinct keys are seen; estimates may be high
+ * for rare keys, and saturate at 65535.
+ */
+public final class FrequencySketch {
+
+    static final int MAX_COUNT = 0xffff;
+
+    private static final int DEPTH = 4;
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    // Keeps the low 15 bits of each 16-bit counter after the whole word is shifted right by one
+    private static final long HALF_MASK = 0x7fff7fff7fff7fffL;
+
+    private final AtomicLongArray table;
+    private final int width;
+    private final int mask;
+    private final int sampleSize;
+    private final AtomicInteger additions = new AtomicInteger();
+
+    // Width is sized for the number of keys whose counts should stay distinguishable
+    public FrequencySketch(int expectedKeys) {
+        this.width = Integer.highestOneBit(Math.max(64, expectedKeys * 4 - 1)) << 1;
+        this.table = new AtomicLongArray(DEPTH * width / 4);
+        this.mask = width - 1;
+        this.sampleSize = 10 * width;
+    }
+
+    public int increment(Object key) {
+        return add(key, 1);
+    }
+
+    // Returns the key's new estimate
+    public int add(Object key, int count) {
+        count = Math.max(0, Math.min(MAX_COUNT, count));
+        int hash = spread(key.hashCode());
+        int min = MAX_COUNT;
+        for (int row = 0; row < DEPTH; row++) {
+            min = Math.min(min, counter(counterIndex(hash, row)));
+        }
+
+        int target = Math.min(MAX_COUNT, min + count);
+        for (int row = 0; row < DEPTH; row++) {
+            raise(counterIndex(hash, row), target);
+        }
+
+        int recorded = additions.addAndGet(count);
+        if (recorded >= sampleSize && additions.compareAndSet(recorded, recorded >>> 1)) {
+            // Only the thread that halved the sample count halves the counters
+            age();
+        }
+        return target;
+    }
+
+    public int estimate(Object key) {
+        int hash = spread(key.hashCode());
+        int min = MAX_COUNT;
+        for (int row = 0; row < DEPTH; row++) {
+            min = Math.min(min, counter(counterIndex(hash, row)));
+        }
+        return min;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    // Position of the key's counter in the given row, counted across the whole table
+    int counterIndex(Object key, int row) {
+        return counterIndex(spread(key.hashCode()), row);
+    }
+
+    private int counterIndex(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += h >>> 32;
+        return row * width + ((int) h & mask);
+    }
+
+    private int counter(int index) {
+        return (int) (table.get(index >>> 2) >>> shift(index)) & MAX_COUNT;
+    }
+
+    // Sets the counter to target unless it already holds at least that much
+    private void raise(int index, int target) {
+        int word = index >>> 2;
+        int shift = shift(index);
+        long current;
+        long updated;
+        do {
+            current = table.get(word);
+            if (((current >>> shift) & MAX_COUNT) >= target) {
+                return;
+            }
+            updated = (current & ~((long) MAX_COUNT << shift)) | ((long) target << shift);
+        } while (!table.compareAndSet(word, current, updated));
+    }
+
+    private void age() {
+        for (int word = 0; word < table.length(); word++) {
+            long current;
+            do {
+                current = table.get(word);
+            } while (current != 0 && !table.compareAndSet(word, current, (current >>> 1) & HALF_MASK));
+        }
+    }
+
+    private static int shift(int index) {
+        return (index & 3) << 4;
+    }
+
+    private static int spread(int hash) {
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        return (hash >>> 16) ^ hash;
+    }
+}
@@ -0,0 +1,151 @@
+package com.weatherapi.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maps the many spellings of a place onto one cache key.
+ *
+ * Queries are first normalized ("London " -> "london", "London, GB" -> "london,gb").
+ * Coordinates snap to the geohash cell they fall in ("51.5074, -0.1278" -> "gh:gcpvj"
+ * at precision 5), so every lookup inside one cell shares a single cached entry.
+ * Once an upstream lookup has told us where a query points, the normalized query is
+ * remembered as an alias of the place's cell ID, so every alias shares that entry too.
+ *
+ * "name,country" is not unique (Springfield, US): once it has been seen for places
+ * further apart than SAME_PLACE_KM it is marked ambiguous and no longer aliased,
+ * instead of pointing at whichever place was registered last.
+ */
+@Component
+public class LocationKeyResolver {
+
+    private static final Pattern COORDINATES =
+            Pattern.compile("^\\s*(-?\\d{1,3}(?:\\.\\d+)?)\\s*,\\s*(-?\\d{1,3}(?:\\.\\d+)?)\\s*$");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern COMMA = Pattern.compile("\\s*,\\s*");
+    private static final String CELL_PREFIX = "gh:";
+    // Alias value of a "name,country" shared by distinct places; resolves like an unknown query
+    private static final String AMBIGUOUS = "";
+    // Same-named places closer than this are one place whose providers disagree slightly
+    private static final double SAME_PLACE_KM = 25;
+
+    private final Cache<String, String> aliases;
+    private final int cellPrecision;
+
+    public LocationKeyResolver(@Value("${cache.aliases.max-size:10000}") long maxAliases,
+                               @Value("${cache.geo.precision:5}") int cellPrecision) {
+        this.cellPrecision = Math.max(1, Math.min(Geohash.MAX_PRECISION, cellPrecision));
+        this.aliases = Caffeine.newBuilder()
+                .maximumSize(maxAliases)
+                .expireAfterWrite(Duration.ofHours(24))
+                .build();
+    }
+
+    // Cache key for a location query: its canonical ID if known, otherwise the normalized query
+    public String resolve(String location) {
+        String normalized = normalize(location);
+        String canonical = aliases.getIfPresent(normalized);
+        return canonical != null && !canonical.equals(AMBIGUOUS) ? canonical : normalized;
+    }
+
+    public String normalize(String location) {
+        if (location == null) {
+            return "";
+        }
+
+        double[] coordinates = parseCoordinates(location);
+        if (coordinates != null) {
+            return coordinateKey(coordinates[0], coordinates[1]);
+        }
+
+        String normalized = WHITESPACE.matcher(location.trim().toLowerCase(Locale.ROOT)).replaceAll(" ");
+        return COMMA.matcher(normalized).replaceAll(",");
+    }
+
+    /**
+     * Records that the query (and "name,country") resolved to the given coordinates.
+     * Returns the canonical ID, or null when the coordinates are unknown.
+     */
+    public String register(String query, String name, String country, Double lat, Double lon) {
+        if (lat == null || lon == null) {
+            return null;
+        }
+
+        String canonical = coordinateKey(lat, lon);
+        if (query != null) {
+            aliases.put(normalize(query), canonical);
+        }
+        if (name != null && !name.isBlank() && country != null && !country.isBlank()) {
+            aliases.asMap().compute(normalize(name + "," + country), (alias, existing) -> {
+                if (existing == null || existing.equals(canonical)) {
+                    return canonical;
+                }
+                // The same place keeps its first cell; a distinct one makes the name ambiguous
+                return near(existing, lat, lon) ? existing : AMBIGUOUS;
+            });
+        }
+        return canonical;
+    }
+
+    private static boolean near(String cellKey, double lat, double lon) {
+        double[] center = cellKey.startsWith(CELL_PREFIX)
+                ? Geohash.center(cellKey.substring(CELL_PREFIX.length()))
+                : null;
+        return center != null && Geohash.distanceKm(center[0], center[1], lat, lon) < SAME_PLACE_KM;
+    }
+
+    /**
+     * The query to send upstream for a location or cache key. Coordinates and cell IDs
+     * become the center of their cell, so whichever request fills a cell fetches the
+     * same point and a background refresh can reload it from the key alone.
+     */
+    public String upstreamQuery(String location) {
+        double[] center = null;
+        if (location != null && location.startsWith(CELL_PREFIX)) {
+            center = Geohash.center(location.substring(CELL_PREFIX.length()));
+        } else {
+            double[] coordinates = parseCoordinates(location);
+            if (coordinates != null) {
+                center = Geohash.center(Geohash.encode(coordinates[0], coordinates[1], cellPrecision));
+            }
+        }
+        return center != null ? String.format(Locale.ROOT, "%.4f,%.4f", center[0], center[1]) : location;
+    }
+
+    public int getCellPrecision() {
+        return cellPrecision;
+    }
+
+    public long getAliasCount() {
+        return aliases.estimatedSize();
+    }
+
+    // Returns {lat, lon} if the query is a coordinate pair, null otherwise
+    public static double[] parseCoordinates(String location) {
+        if (location == null) {
+            return null;
+        }
+
+        Matcher matcher = COORDINATES.matcher(location);
+        if (!matcher.matches()) {
+            return null;
+        }
+
+        double lat = Double.parseDouble(matcher.group(1));
+        double lon = Double.parseDouble(matcher.group(2));
+        if (lat < -90 || lat > 90 || lon < -180 || lon > 180) {
+            return null;
+        }
+        return new double[] {lat, lon};
+    }
+
+    private String coordinateKey(double lat, double lon) {
+        return CELL_PREFIX + Geohash.encode(lat, lon, cellPrecision);
+    }
+}
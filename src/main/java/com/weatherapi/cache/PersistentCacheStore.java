@@ -0,0 +1,230 @@
+package com.weatherapi.cache;
+
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Second cache tier: an embedded, file-backed key-value store (H2 MVStore) that
+ * survives restarts. Values are kept as compact binary records outside the
+ * Caffeine heap, prefixed with the time they were written so readers can
+ * apply the same hard TTL as the in-memory tier.
+ *
+ * Writes are write-behind: the record is encoded on the caller's thread and
+ * stored by a single background writer, so request threads never wait on the
+ * file. When more than writeQueue writes are pending, new ones are dropped (the
+ * entry is still in L1 and simply will not survive a restart). Expired and
+ * excess records are swept on a separate background thread every sweepInterval,
+ * and as soon as a cache grows past its bound. Reads are
+ * synchronous; callers on non-blocking threads must move them elsewhere.
+ */
+public class PersistentCacheStore implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(PersistentCacheStore.class);
+
+    private final MVStore store;
+    private final Map<String, Duration> ttls;
+    private final long maxEntriesPerCache;
+    private final ThreadPoolExecutor writer;
+    private final ScheduledThreadPoolExecutor sweeper;
+    private final AtomicBoolean sweepQueued = new AtomicBoolean();
+    private final LongAdder droppedWrites = new LongAdder();
+
+    public PersistentCacheStore(String path, int pageCacheMb, Map<String, Duration> ttls, long maxEntriesPerCache,
+                                int writeQueue, Duration sweepInterval) {
+        File file = new File(path);
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+
+        this.store = new MVStore.Builder()
+                .fileName(file.getPath())
+                .cacheSize(pageCacheMb)
+                .compress()
+                .open();
+        this.ttls = ttls;
+        this.maxEntriesPerCache = maxEntriesPerCache;
+
+        this.writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, writeQueue)), task -> daemon(task, "cache-l2-writer"),
+                (task, executor) -> droppedWrites.increment());
+        this.sweeper = new ScheduledThreadPoolExecutor(1, task -> daemon(task, "cache-l2-sweeper"));
+
+        // Drop whatever expired while the application was down, then keep sweeping in the background
+        ttls.keySet().forEach(this::sweep);
+        long sweepMillis = Math.max(1000, sweepInterval.toMillis());
+        sweeper.scheduleWithFixedDelay(this::sweepAll, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public record Entry(long writtenAt, Object value) {
+        public Duration age() {
+            return Duration.ofMillis(Math.max(0, System.currentTimeMillis() - writtenAt));
+        }
+    }
+
+    // Returns the stored entry, or null if it is missing, expired or unreadable
+    public Entry get(String cacheName, Object key) {
+        byte[] record = map(cacheName).get(key.toString());
+        if (record == null) {
+            return null;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        long writtenAt = buffer.getLong();
+        if (isExpired(cacheName, writtenAt)) {
+            write(() -> removeIfExpired(cacheName, key.toString()));
+            return null;
+        }
+
+        byte[] payload = new byte[buffer.remaining()];
+        buffer.get(payload);
+        Object value = CacheValueCodec.decode(payload);
+        return value != null ? new Entry(writtenAt, value) : null;
+    }
+
+    public void put(String cacheName, Object key, Object value) {
+        if (!CacheValueCodec.supports(value)) {
+            return;
+        }
+
+        // Encoded now: the value may be a mutable model, and the write time is the put time
+        byte[] payload = CacheValueCodec.encode(value);
+        ByteBuffer record = ByteBuffer.allocate(Long.BYTES + payload.length);
+        record.putLong(System.currentTimeMillis()).put(payload);
+        String storeKey = key.toString();
+        write(() -> {
+            MVMap<String, byte[]> map = map(cacheName);
+            map.put(storeKey, record.array());
+            if (map.sizeAsLong() > maxEntriesPerCache) {
+                requestSweep();
+            }
+        });
+    }
+
+    public void remove(String cacheName, Object key) {
+        String storeKey = key.toString();
+        write(() -> map(cacheName).remove(storeKey));
+    }
+
+    public void clear(String cacheName) {
+        write(() -> map(cacheName).clear());
+    }
+
+    public long size(String cacheName) {
+        return map(cacheName).sizeAsLong();
+    }
+
+    public long getPendingWrites() {
+        return writer.getQueue().size();
+    }
+
+    public long getDroppedWrites() {
+        return droppedWrites.sum();
+    }
+
+    private void write(Runnable operation) {
+        writer.execute(() -> {
+            try {
+                operation.run();
+            } catch (RuntimeException e) {
+                log.warn("l2 write failed: {}", e.getMessage());
+            }
+        });
+    }
+
+    // At most one extra sweep queued behind the scheduled ones
+    private void requestSweep() {
+        if (sweepQueued.compareAndSet(false, true)) {
+            sweeper.execute(() -> {
+                sweepQueued.set(false);
+                sweepAll();
+            });
+        }
+    }
+
+    private void sweepAll() {
+        try {
+            ttls.keySet().forEach(this::sweep);
+        } catch (RuntimeException e) {
+            log.warn("l2 sweep failed: {}", e.getMessage());
+        }
+    }
+
+    // Re-checked on the writer thread: a newer put may have replaced the expired record
+    private void removeIfExpired(String cacheName, String key) {
+        MVMap<String, byte[]> map = map(cacheName);
+        byte[] record = map.get(key);
+        if (record != null && isExpired(cacheName, ByteBuffer.wrap(record).getLong())) {
+            map.remove(key);
+        }
+    }
+
+    // Removes expired records, then the oldest ones if the cache is still over its bound
+    private void sweep(String cacheName) {
+        MVMap<String, byte[]> map = map(cacheName);
+        List<String> expired = new ArrayList<>();
+        List<Map.Entry<String, Long>> live = new ArrayList<>();
+
+        for (Map.Entry<String, byte[]> entry : map.entrySet()) {
+            long writtenAt = ByteBuffer.wrap(entry.getValue()).getLong();
+            if (isExpired(cacheName, writtenAt)) {
+                expired.add(entry.getKey());
+            } else {
+                live.add(Map.entry(entry.getKey(), writtenAt));
+            }
+        }
+        expired.forEach(map::remove);
+
+        if (live.size() > maxEntriesPerCache) {
+            // Trim to 90% of the bound so the sweep is not repeated on every write
+            live.sort(Map.Entry.comparingByValue());
+            long excess = live.size() - (maxEntriesPerCache * 9 / 10);
+            for (int i = 0; i < excess; i++) {
+                map.remove(live.get(i).getKey());
+            }
+        }
+    }
+
+    private boolean isExpired(String cacheName, long writtenAt) {
+        Duration ttl = ttls.get(cacheName);
+        return ttl != null && System.currentTimeMillis() - writtenAt >= ttl.toMillis();
+    }
+
+    private MVMap<String, byte[]> map(String cacheName) {
+        return store.openMap(cacheName);
+    }
+
+    private static Thread daemon(Runnable task, String name) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    // Pending writes are flushed before the file is closed
+    @Override
+    public void close() {
+        sweeper.shutdownNow();
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("l2 close: {} writes not flushed", writer.shutdownNow().size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        store.close();
+    }
+}
@@ -0,0 +1,248 @@
+package com.weatherapi.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.weatherapi.model.ApiResponse;
+import com.weatherapi.model.ForecastData;
+import com.weatherapi.model.LocationData;
+import com.weatherapi.model.WeatherData;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized success responses per (endpoint, cache key), kept as identity and
+ * gzip bytes so a repeated hit is written straight to the socket instead of
+ * walking the object graph through Jackson again.
+ *
+ * Each body is built from, and remembers, the stored form of a data cache entry
+ * (TieredCaffeineCache.peek). Once the cache holds a different instance for the key
+ * (refresh, eviction, a wider forecast) the body is rebuilt on the next request, so
+ * it never outlives its data. Values that are not in the cache are serialized as
+ * given every time. The envelope timestamp is when the body was built; the Date
+ * header is per response.
+ *
+ * Responses carry a strong ETag of the data alone, without the envelope and its
+ * timestamp, so a rebuilt body of unchanged data keeps its tag whether or not it
+ * came from here (If-None-Match answers 304 while the data is unchanged), and a
+ * Cache-Control lifetime taken from the data cache entry: max-age until its soft
+ * TTL, stale-while-revalidate until its hard TTL. Fallback data is sent untagged
+ * with no-store, so no client or CDN keeps the placeholder once providers recover.
+ */
+@Component
+public class ResponseBytesCache {
+
+    private static final String GZIP_SUFFIX = "-gzip";
+
+    private final ObjectMapper objectMapper;
+    private final CacheManager cacheManager;
+    private final boolean enabled;
+    private final Cache<String, Body> bodies;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+
+    public ResponseBytesCache(ObjectMapper objectMapper, CacheManager cacheManager,
+                              @Value("${weather.response-cache.enabled:true}") boolean enabled,
+                              @Value("${weather.response-cache.max-size:1000}") long maxSize) {
+        this.objectMapper = objectMapper;
+        this.cacheManager = cacheManager;
+        this.enabled = enabled;
+        this.bodies = Caffeine.newBuilder().maximumSize(maxSize).build();
+    }
+
+    public ResponseEntity<?> respond(String cacheName, String key, Object value, HttpHeaders request) {
+        return respond(cacheName, "", key, value, Function.identity(), request);
+    }
+
+    /**
+     * @param cacheName data cache the value came from
+     * @param variant   distinguishes responses built from one entry (e.g. forecast days)
+     * @param key       the value's key in that cache
+     * @param value     the value the caller read, used when the cache no longer holds it
+     * @param view      what the response carries for a value of the cache
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ResponseEntity<?> respond(String cacheName, String variant, String key, T value,
+                                         Function<? super T, ?> view, HttpHeaders request) {
+        TieredCaffeineCache cache = cacheManager.getCache(cacheName) instanceof TieredCaffeineCache tiered
+                ? tiered : null;
+        Object stored = cache != null ? cache.peek(key) : null;
+
+        boolean gzip = acceptsGzip(request.getFirst(HttpHeaders.ACCEPT_ENCODING));
+        if (isFallback(value)) {
+            // Serialized as given: the cache may still hold the real entry this stands in for
+            byte[] identity = envelope(view.apply(value));
+            return ok(null, gzip, CacheControl.noStore(), identity, gzip ? gzip(identity) : null);
+        }
+
+        CacheControl cacheControl = cacheControl(cache, key);
+
+        if (!enabled || stored == null) {
+            // Nothing to keep: the body is only built when the client's copy is out of date
+            Object data = view.apply(value);
+            String etag = etag(data);
+            if (matches(request, etag)) {
+                return notModified(etag, gzip, cacheControl);
+            }
+            byte[] identity = envelope(data);
+            return ok(etag, gzip, cacheControl, identity, gzip ? gzip(identity) : null);
+        }
+
+        String bodyKey = cacheName + variant + "|" + key;
+        Body body = bodies.getIfPresent(bodyKey);
+        if (body != null && body.source == stored) {
+            hits.increment();
+        } else {
+            misses.increment();
+            Object current = cache.expand(stored);
+            body = serialize(stored, view.apply(value.getClass().isInstance(current) ? (T) current : value));
+            bodies.put(bodyKey, body);
+        }
+
+        if (matches(request, body.etag)) {
+            return notModified(body.etag, gzip, cacheControl);
+        }
+        return ok(body.etag, gzip, cacheControl, body.identity, body.gzip);
+    }
+
+    public Map<String, Object> getStats() {
+        return Map.of(
+                "enabled", enabled,
+                "entries", bodies.estimatedSize(),
+                "hits", hits.sum(),
+                "misses", misses.sum(),
+                "notModified", notModified.sum());
+    }
+
+    private ResponseEntity<?> notModified(String etag, boolean gzip, CacheControl cacheControl) {
+        notModified.increment();
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(tag(etag, gzip))
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .build();
+    }
+
+    private ResponseEntity<?> ok(String etag, boolean gzip, CacheControl cacheControl,
+                                 byte[] identity, byte[] compressed) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (etag != null) {
+            response.eTag(tag(etag, gzip));
+        }
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(compressed);
+        }
+        return response.body(identity);
+    }
+
+    private Body serialize(Object source, Object data) {
+        byte[] identity = envelope(data);
+        return new Body(source, identity, gzip(identity), etag(data));
+    }
+
+    // Digest of the data as serialized on its own, so the envelope timestamp does not change it
+    private String etag(Object data) {
+        return DigestUtils.md5DigestAsHex(write(data));
+    }
+
+    private byte[] envelope(Object data) {
+        return write(ApiResponse.success(data));
+    }
+
+    private byte[] write(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    private static byte[] gzip(byte[] identity) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(identity.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(identity);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static String tag(String etag, boolean gzip) {
+        return "\"" + etag + (gzip ? GZIP_SUFFIX : "") + "\"";
+    }
+
+    // Entries not (or no longer) in L1 have no known lifetime: clients revalidate every time
+    private CacheControl cacheControl(TieredCaffeineCache cache, String key) {
+        TieredCaffeineCache.Freshness freshness = cache != null ? cache.freshness(key) : null;
+        if (freshness == null) {
+            return CacheControl.noCache();
+        }
+
+        CacheControl cacheControl = CacheControl.maxAge(freshness.fresh()).cachePublic();
+        Duration stale = freshness.expiresIn().minus(freshness.fresh());
+        return stale.isNegative() || stale.isZero() ? cacheControl : cacheControl.staleWhileRevalidate(stale);
+    }
+
+    private static boolean isFallback(Object value) {
+        return value instanceof WeatherData weather && weather.isFallback()
+                || value instanceof CachedForecast cached && cached.isFallback()
+                || value instanceof ForecastData forecast && forecast.isFallback()
+                || value instanceof LocationData locations && locations.isFallback();
+    }
+
+    // Either encoding's tag matches: both carry the same document
+    private static boolean matches(HttpHeaders request, String etag) {
+        for (String tag : request.getIfNoneMatch()) {
+            String opaque = tag.startsWith("W/") ? tag.substring(2) : tag;
+            if (opaque.equals("*") || opaque.equals("\"" + etag + "\"")
+                    || opaque.equals("\"" + etag + GZIP_SUFFIX + "\"")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // "gzip" listed without q=0; wildcards are not expanded
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip")) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=") && param.substring(2).trim().matches("0(\\.0*)?")) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private record Body(Object source, byte[] identity, byte[] gzip, String etag) {
+    }
+}
@@ -0,0 +1,258 @@
+package com.weatherapi.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.weatherapi.metrics.ServerTiming;
+import org.springframework.cache.caffeine.CaffeineCache;
+import reactor.core.scheduler.Schedulers;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caffeine cache (L1) with an optional persistent L2 tier and stale-while-revalidate reads.
+ *
+ * Reads check L1, then L2; an L2 hit is promoted into L1 for whatever is left of
+ * its hard TTL. Writes go to both tiers, to L2 behind the caller. retrieve(), used
+ * by the Mono-returning methods, reads L2 on boundedElastic threads; get() reads it
+ * on the caller's thread, so code that may run on Reactor threads uses retrieve().
+ * A hit on an entry older than the soft TTL is served as-is and triggers one
+ * background reload.
+ *
+ * L1 holds the compact forms from CompactValues; values are converted on the way
+ * in and rebuilt on every read.
+ */
+public class TieredCaffeineCache extends CaffeineCache {
+
+    private static final Executor L2_READS = task -> Schedulers.boundedElastic().schedule(task);
+
+    private final Duration hardTtl;
+    private final Duration softTtl;
+    private final CacheRefresher cacheRefresher;
+    private final PersistentCacheStore l2;
+
+    private final LongAdder l2Hits = new LongAdder();
+    private final LongAdder l2Misses = new LongAdder();
+
+    /**
+     * @param softTtl age after which hits trigger a background reload, or null to disable refresh-ahead
+     * @param l2 persistent tier, or null to run with L1 only
+     */
+    public TieredCaffeineCache(String name, AsyncCache<Object, Object> cache, boolean allowNullValues,
+                               Duration hardTtl, Duration softTtl, CacheRefresher cacheRefresher,
+                               PersistentCacheStore l2) {
+        super(name, cache, allowNullValues);
+        this.hardTtl = hardTtl;
+        this.softTtl = softTtl;
+        this.cacheRefresher = cacheRefresher;
+        this.l2 = l2;
+    }
+
+    // Per-entry expiry so entries promoted from L2 keep their remaining TTL instead of a fresh one
+    public static Expiry<Object, Object> expireAfterWrite(Duration ttl) {
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(Object key, Object value, long currentTime) {
+                return ttl.toNanos();
+            }
+
+            @Override
+            public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+                return ttl.toNanos();
+            }
+
+            @Override
+            public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+
+    // Weigher bounding L1 by estimated heap bytes instead of entry count
+    public static int weigh(Object key, Object value) {
+        return CompactValues.weigh(key, value);
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        long start = System.nanoTime();
+        try {
+            Object value = super.lookup(key);
+            if (value != null) {
+                refreshIfStale(key, l1Age(key));
+                return value;
+            }
+            return promoteFromL2(key);
+        } finally {
+            ServerTiming.current().addCache(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        long start = System.nanoTime();
+        try {
+            CompletableFuture<?> result = super.retrieve(key);
+            if (result != null) {
+                refreshIfStale(key, l1Age(key));
+                // With null values allowed the stored value is already unwrapped through fromStoreValue
+                return isAllowNullValues() ? result : result.thenApply(this::fromStoreValue);
+            }
+
+            if (l2 == null) {
+                return null;
+            }
+
+            // Reads of the file store never run on the caller's (possibly event-loop) thread;
+            // a future completing empty is a miss
+            ServerTiming timing = ServerTiming.current();
+            return CompletableFuture.supplyAsync(() -> {
+                long readStart = System.nanoTime();
+                try {
+                    Object value = promoteFromL2(key);
+                    if (value == null) {
+                        return null;
+                    }
+                    return isAllowNullValues() ? toValueWrapper(value) : value;
+                } finally {
+                    timing.addCache(System.nanoTime() - readStart);
+                }
+            }, L2_READS);
+        } finally {
+            ServerTiming.current().addCache(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    protected Object toStoreValue(Object userValue) {
+        return super.toStoreValue(CompactValues.compact(userValue));
+    }
+
+    @Override
+    protected Object fromStoreValue(Object storeValue) {
+        return CompactValues.expand(super.fromStoreValue(storeValue));
+    }
+
+    // The stored form of an entry, without touching statistics or expiry. It is replaced
+    // (a new instance) whenever the entry is, so its identity versions the entry.
+    public Object peek(Object key) {
+        return getNativeCache().policy().getIfPresentQuietly(key);
+    }
+
+    // The value a read would return for a stored form obtained from peek()
+    public Object expand(Object storeValue) {
+        return fromStoreValue(storeValue);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        super.put(key, value);
+        if (l2 != null && value != null) {
+            l2.put(getName(), key, value);
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        super.evict(key);
+        if (l2 != null) {
+            l2.remove(getName(), key);
+        }
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        if (l2 != null) {
+            l2.remove(getName(), key);
+        }
+        return super.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        if (l2 != null) {
+            l2.clear(getName());
+        }
+    }
+
+    @Override
+    public boolean invalidate() {
+        if (l2 != null) {
+            l2.clear(getName());
+        }
+        return super.invalidate();
+    }
+
+    public Map<String, Object> getTierStats() {
+        var l1 = getNativeCache().stats();
+        return Map.of(
+                "l1", Map.of(
+                        "hits", l1.hitCount(),
+                        "misses", l1.missCount(),
+                        "evictions", l1.evictionCount(),
+                        "size", getNativeCache().estimatedSize()),
+                "l2", l2 == null ? Map.of("enabled", false) : Map.of(
+                        "enabled", true,
+                        "hits", l2Hits.sum(),
+                        "misses", l2Misses.sum(),
+                        "size", l2.size(getName()),
+                        "pendingWrites", l2.getPendingWrites(),
+                        "droppedWrites", l2.getDroppedWrites()));
+    }
+
+    // Time until a hit on the entry triggers a reload (its soft TTL, or the hard TTL without
+    // refresh-ahead) and until it expires; null when the entry is not in L1
+    public Freshness freshness(Object key) {
+        Optional<Duration> remaining = variableExpiration().flatMap(expiration -> expiration.getExpiresAfter(key));
+        if (remaining.isEmpty()) {
+            return null;
+        }
+
+        Duration age = hardTtl.minus(remaining.get());
+        Duration fresh = (softTtl != null ? softTtl : hardTtl).minus(age);
+        return new Freshness(fresh.isNegative() ? Duration.ZERO : fresh, remaining.get());
+    }
+
+    private Object promoteFromL2(Object key) {
+        if (l2 == null) {
+            return null;
+        }
+
+        PersistentCacheStore.Entry entry = l2.get(getName(), key);
+        Duration remaining = entry != null ? hardTtl.minus(entry.age()) : Duration.ZERO;
+        if (entry == null || remaining.isNegative() || remaining.isZero()) {
+            l2Misses.increment();
+            return null;
+        }
+
+        l2Hits.increment();
+        variableExpiration().ifPresent(expiration -> expiration.put(key, toStoreValue(entry.value()), remaining));
+        refreshIfStale(key, entry.age());
+        return entry.value();
+    }
+
+    private Duration l1Age(Object key) {
+        return variableExpiration()
+                .flatMap(expiration -> expiration.getExpiresAfter(key))
+                .map(remaining -> hardTtl.minus(remaining))
+                .orElse(Duration.ZERO);
+    }
+
+    private void refreshIfStale(Object key, Duration age) {
+        if (softTtl != null && age.compareTo(softTtl) >= 0) {
+            cacheRefresher.refresh(this, key);
+        }
+    }
+
+    private Optional<Policy.VarExpiration<Object, Object>> variableExpiration() {
+        return getNativeCache().policy().expireVariably();
+    }
+
+    public record Freshness(Duration fresh, Duration expiresIn) {
+    }
+}
@@ -0,0 +1,49 @@
+package com.weatherapi.client;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Sliding window of the most recent call latencies. The 95th percentile is
+ * recomputed every few samples instead of on every read.
+ */
+public class LatencyWindow {
+
+    private static final int RECOMPUTE_EVERY = 16;
+
+    private final AtomicLongArray samples;
+    private final AtomicLong count = new AtomicLong();
+    private volatile long p95Millis = -1;
+
+    public LatencyWindow(int size) {
+        this.samples = new AtomicLongArray(size);
+    }
+
+    public void record(long millis) {
+        long n = count.getAndIncrement();
+        samples.set((int) (n % samples.length()), millis);
+        if ((n + 1) % RECOMPUTE_EVERY == 0) {
+            p95Millis = percentile(0.95);
+        }
+    }
+
+    // -1 until enough samples have been seen to be meaningful
+    public long getP95Millis() {
+        return p95Millis;
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    private long percentile(double quantile) {
+        int filled = (int) Math.min(count.get(), samples.length());
+        long[] sorted = new long[filled];
+        for (int i = 0; i < filled; i++) {
+            sorted[i] = samples.get(i);
+        }
+        Arrays.sort(sorted);
+        return sorted[Math.min(filled - 1, (int) Math.ceil(quantile * filled) - 1)];
+    }
+}
@@ -0,0 +1,107 @@
+package com.weatherapi.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.weatherapi.metrics.ServerTiming;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Decodes upstream JSON bodies with the Jackson token API straight from the
+ * response buffers, without building an intermediate String or JsonNode tree.
+ * Readers pick out the fields they need and skip everything else.
+ */
+public final class StreamingJson {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    // Upper bound for a single upstream body; the 10-day hourly forecast is the largest
+    private static final int MAX_BODY_BYTES = 4 * 1024 * 1024;
+
+    @FunctionalInterface
+    public interface Reader<T> {
+        T read(JsonParser parser) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface FieldHandler {
+        void field(String name, JsonParser parser) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface ElementHandler {
+        void element(JsonParser parser) throws IOException;
+    }
+
+    private StreamingJson() {
+    }
+
+    // The buffers are released as soon as the reader is done; an empty body is an error
+    public static <T> Mono<T> decode(Flux<DataBuffer> body, Reader<T> reader) {
+        ServerTiming timing = ServerTiming.current();
+        return DataBufferUtils.join(body, MAX_BODY_BYTES)
+                .map(buffer -> {
+                    long start = System.nanoTime();
+                    try (InputStream in = buffer.asInputStream(true);
+                         JsonParser parser = JSON_FACTORY.createParser(in)) {
+                        parser.nextToken();
+                        return reader.read(parser);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    } finally {
+                        timing.addParse(System.nanoTime() - start);
+                    }
+                })
+                .switchIfEmpty(Mono.error(() -> new IOException("Empty response body")));
+    }
+
+    /**
+     * Calls the handler for each field of the object at the current token, with the
+     * parser positioned on the field's value. Values the handler leaves unread are
+     * skipped; a non-object value is skipped entirely.
+     */
+    public static void forEachField(JsonParser parser, FieldHandler handler) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            parser.nextToken();
+            handler.field(name, parser);
+            parser.skipChildren();
+        }
+    }
+
+    // Calls the handler for the first element of the array at the current token and skips the rest
+    public static void firstElement(JsonParser parser, ElementHandler handler) throws IOException {
+        boolean[] first = {true};
+        forEachElement(parser, element -> {
+            if (first[0]) {
+                first[0] = false;
+                handler.element(element);
+            }
+        });
+    }
+
+    // Same as forEachField for the elements of the array at the current token
+    public static void forEachElement(JsonParser parser, ElementHandler handler) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            handler.element(parser);
+            parser.skipChildren();
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package com.weatherapi.client;
+
+import com.weatherapi.metrics.ServerTiming;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Latency budget and overload protection for upstream calls. Every call has to
+ * finish within its provider's deadline or it fails with a TimeoutException. When
+ * hedging is on, a second identical request is sent once the first has been
+ * outstanding for longer than the operation's observed p95; whichever answers first
+ * wins and the other is cancelled. A hedge takes its own concurrency permit and is
+ * not sent when none is free.
+ *
+ * <p>Each provider also has a circuit breaker and an adaptive concurrency limit.
+ * Calls refused by either fail at once with an UpstreamRejectedException.
+ *
+ * <p>Every call is recorded in the weather.upstream.requests timer, tagged with
+ * provider, operation and outcome (success, error, timeout, rejected, cancelled).
+ */
+@Component
+public class UpstreamCalls {
+
+    private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+    private final Map<String, Provider> providers = new ConcurrentHashMap<>();
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    // Used for providers without their own weather.upstream.<provider>.deadline-ms
+    @Value("${weather.upstream.deadline-ms:1500}")
+    private long defaultDeadlineMs;
+
+    @Value("${weather.upstream.hedging.enabled:true}")
+    private boolean hedgingEnabled;
+
+    @Value("${weather.upstream.hedging.min-delay-ms:50}")
+    private long minHedgeDelayMs;
+
+    @Value("${weather.upstream.hedging.min-samples:20}")
+    private long minHedgeSamples;
+
+    @Value("${weather.upstream.breaker.failure-threshold:5}")
+    private int breakerFailureThreshold;
+
+    @Value("${weather.upstream.breaker.open-seconds:30}")
+    private long breakerOpenSeconds;
+
+    @Value("${weather.upstream.concurrency.initial-limit:20}")
+    private int initialConcurrencyLimit;
+
+    @Value("${weather.upstream.concurrency.min-limit:2}")
+    private int minConcurrencyLimit;
+
+    @Value("${weather.upstream.concurrency.max-limit:50}")
+    private int maxConcurrencyLimit;
+
+    public UpstreamCalls(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @param provider upstream provider, selects the deadline, circuit and concurrency limit
+     * @param operation call type within the provider; latencies are tracked per operation
+     * @param request creates a new request on each subscription
+     */
+    public <T> Mono<T> call(String provider, String operation, Supplier<Mono<T>> request) {
+        Operation stats = operations.computeIfAbsent(provider + "." + operation,
+                name -> new Operation(meterRegistry, provider, operation));
+        long deadlineMs = environment.getProperty("weather.upstream." + provider + ".deadline-ms",
+                Long.class, defaultDeadlineMs);
+
+        Provider state = providers.computeIfAbsent(provider, name -> new Provider(
+                new CircuitBreaker(breakerFailureThreshold, breakerOpenSeconds * 1000),
+                new AdaptiveConcurrencyLimit(initialConcurrencyLimit, minConcurrencyLimit, maxConcurrencyLimit)));
+
+        ServerTiming timing = ServerTiming.current();
+        return Mono.defer(() -> {
+            if (!state.breaker.tryAcquire()) {
+                stats.record("rejected", 0);
+                return Mono.error(new UpstreamRejectedException(provider + " circuit is open"));
+            }
+            if (!state.concurrency.tryAcquire()) {
+                state.breaker.onIgnored();
+                stats.record("rejected", 0);
+                return Mono.error(new UpstreamRejectedException(provider + " concurrency limit reached"));
+            }
+
+            AtomicBoolean settled = new AtomicBoolean();
+            long start = System.nanoTime();
+            return hedged(state, stats, request)
+                    .timeout(Duration.ofMillis(deadlineMs), Mono.error(() -> {
+                        stats.deadlineMisses.increment();
+                        return new TimeoutException(provider + " missed its " + deadlineMs + "ms deadline");
+                    }))
+                    .doOnSuccess(value -> {
+                        if (settled.compareAndSet(false, true)) {
+                            state.onSuccess();
+                            finish(stats, timing, "success", start);
+                        }
+                    })
+                    .doOnError(e -> {
+                        if (settled.compareAndSet(false, true)) {
+                            state.onError(e);
+                            finish(stats, timing, outcome(e), start);
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        if (settled.compareAndSet(false, true)) {
+                            state.onIgnored();
+                            finish(stats, timing, "cancelled", start);
+                        }
+                    });
+        });
+    }
+
+    private void finish(Operation stats, ServerTiming timing, String outcome, long start) {
+        long end = System.nanoTime();
+        stats.record(outcome, end - start);
+        timing.addUpstream(start, end);
+    }
+
+    private static String outcome(Throwable error) {
+        if (error instanceof TimeoutException) {
+            return "timeout";
+        }
+        return error instanceof UpstreamRejectedException ? "rejected" : "error";
+    }
+
+    // A failed primary fails the call straight away rather than waiting for the hedge;
+    // a failed hedge leaves the primary to answer
+    private <T> Mono<T> hedged(Provider state, Operation stats, Supplier<Mono<T>> request) {
+        Mono<T> primary = timed(stats, request);
+        long p95 = stats.latencies.getP95Millis();
+        if (!hedgingEnabled || p95 < 0 || stats.latencies.getCount() < minHedgeSamples) {
+            return primary;
+        }
+
+        Mono<T> hedge = Mono.delay(Duration.ofMillis(Math.max(minHedgeDelayMs, p95)))
+                .then(Mono.defer(() -> {
+                    // A provider already at its limit is not sent more work; the primary answers alone
+                    if (!state.concurrency.tryAcquire()) {
+                        return Mono.<T>never();
+                    }
+                    stats.hedges.increment();
+                    AtomicBoolean released = new AtomicBoolean();
+                    return timed(stats, request)
+                            .doOnSuccess(value -> {
+                                if (released.compareAndSet(false, true)) {
+                                    state.concurrency.onSuccess();
+                                }
+                            })
+                            .doOnError(e -> {
+                                if (released.compareAndSet(false, true)) {
+                                    state.releaseHedge(e);
+                                }
+                            })
+                            .doOnCancel(() -> {
+                                if (released.compareAndSet(false, true)) {
+                                    state.concurrency.onIgnored();
+                                }
+                            });
+                }))
+                .doOnNext(value -> stats.hedgeWins.increment())
+                .onErrorResume(e -> Mono.never());
+        return Mono.firstWithSignal(primary, hedge);
+    }
+
+    // Circuit and concurrency state per provider
+    public Map<String, Object> getProviderStats() {
+        Map<String, Object> stats = new TreeMap<>();
+        providers.forEach((name, provider) -> stats.put(name, Map.of(
+                "circuit", provider.breaker.getState().name(),
+                "consecutiveFailures", provider.breaker.getConsecutiveFailures(),
+                "shortCircuited", provider.breaker.getRejected(),
+                "concurrencyLimit", provider.concurrency.getLimit(),
+                "inFlight", provider.concurrency.getInFlight(),
+                "limited", provider.concurrency.getRejected())));
+        return stats;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new TreeMap<>();
+        operations.forEach((name, operation) -> stats.put(name, Map.of(
+                "p95Ms", operation.latencies.getP95Millis(),
+                "hedges", operation.hedges.sum(),
+                "hedgeWins", operation.hedgeWins.sum(),
+                "deadlineMisses", operation.deadlineMisses.sum())));
+        return stats;
+    }
+
+    private <T> Mono<T> timed(Operation stats, Supplier<Mono<T>> request) {
+        return Mono.defer(request)
+                .elapsed()
+                .map(timed -> {
+                    stats.latencies.record(timed.getT1());
+                    return timed.getT2();
+                });
+    }
+
+    private static final class Provider {
+        final CircuitBreaker breaker;
+        final AdaptiveConcurrencyLimit concurrency;
+
+        Provider(CircuitBreaker breaker, AdaptiveConcurrencyLimit concurrency) {
+            this.breaker = breaker;
+            this.concurrency = concurrency;
+        }
+
+        void onSuccess() {
+            breaker.onSuccess();
+            concurrency.onSuccess();
+        }
+
+        // A bad or unknown location (400, 404) shows the provider is up. Other client errors
+        // count as failures: a revoked key (401, 403) fails every call until the circuit opens.
+        // Only our own rejections and cancellations say nothing about the provider.
+        void onError(Throwable error) {
+            if (error instanceof UpstreamRejectedException) {
+                breaker.onIgnored();
+                concurrency.onIgnored();
+            } else if (isClientMistake(error)) {
+                onSuccess();
+            } else {
+                breaker.onFailure();
+                concurrency.onFailure();
+            }
+        }
+
+        // A hedge holds only a concurrency permit; the breaker hears about the call once
+        void releaseHedge(Throwable error) {
+            if (isClientMistake(error)) {
+                concurrency.onSuccess();
+            } else {
+                concurrency.onFailure();
+            }
+        }
+
+        private static boolean isClientMistake(Throwable error) {
+            return error instanceof WebClientResponseException response
+                    && (response.getStatusCode().value() == 400 || response.getStatusCode().value() == 404);
+        }
+
+        void onIgnored() {
+            breaker.onIgnored();
+            concurrency.onIgnored();
+        }
+    }
+
+    private static final class Operation {
+        final LatencyWindow latencies = new LatencyWindow(256);
+        final LongAdder hedges = new LongAdder();
+        final LongAdder hedgeWins = new LongAdder();
+        final LongAdder deadlineMisses = new LongAdder();
+        final Map<String, Timer> timers = new ConcurrentHashMap<>();
+        final MeterRegistry registry;
+        final String provider;
+        final String operation;
+
+        Operation(MeterRegistry registry, String provider, String operation) {
+            this.registry = registry;
+            this.provider = provider;
+            this.operation = operation;
+        }
+
+        void record(String outcome, long nanos) {
+            timers.computeIfAbsent(outcome, key -> Timer.builder("weather.upstream.requests")
+                            .description("Upstream provider calls, including hedges, until their first signal")
+                            .tag("provider", provider)
+                            .tag("operation", operation)
+                            .tag("outcome", key)
+                            .register(registry))
+                    .record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.weatherapi.client;
+
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+import java.net.SocketAddress;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects the live gauges of every upstream connection pool. Reactor Netty
+ * registers one pool per provider and remote address; the stats are summed per
+ * provider so /health shows how close each one is to its connection limit.
+ */
+public class UpstreamPoolMetrics implements ConnectionProvider.MeterRegistrar {
+
+    private final Map<String, Map<SocketAddress, ConnectionPoolMetrics>> pools = new ConcurrentHashMap<>();
+
+    @Override
+    public void registerMetrics(String poolName, String id, SocketAddress remoteAddress, ConnectionPoolMetrics metrics) {
+        pools.computeIfAbsent(poolName, name -> new ConcurrentHashMap<>()).put(remoteAddress, metrics);
+    }
+
+    @Override
+    public void deRegisterMetrics(String poolName, String id, SocketAddress remoteAddress) {
+        Map<SocketAddress, ConnectionPoolMetrics> addresses = pools.get(poolName);
+        if (addresses != null) {
+            addresses.remove(remoteAddress);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new TreeMap<>();
+        pools.forEach((name, addresses) -> {
+            int acquired = 0, allocated = 0, idle = 0, pending = 0, maxAllocated = 0;
+            for (ConnectionPoolMetrics metrics : addresses.values()) {
+                acquired += metrics.acquiredSize();
+                allocated += metrics.allocatedSize();
+                idle += metrics.idleSize();
+                pending += metrics.pendingAcquireSize();
+                maxAllocated = Math.max(maxAllocated, metrics.maxAllocatedSize());
+            }
+            stats.put(name, Map.of(
+                    "remotes", addresses.size(),
+                    "active", acquired,
+                    "open", allocated,
+                    "idle", idle,
+                    "pendingAcquire", pending,
+                    "maxConnections", maxAllocated));
+        });
+        return stats;
+    }
+}
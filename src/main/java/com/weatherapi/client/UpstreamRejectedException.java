@@ -0,0 +1,12 @@
+package com.weatherapi.client;
+
+/**
+ * An upstream call that was refused locally (open circuit, concurrency limit,
+ * outbound quota) without reaching the provider. Not counted as a provider failure.
+ */
+public class UpstreamRejectedException extends RuntimeException {
+
+    public UpstreamRejectedException(String message) {
+        super(message);
+    }
+}
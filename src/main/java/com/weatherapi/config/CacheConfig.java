@@ -1,22 +1,97 @@
 package com.weatherapi.config;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.weatherapi.cache.CacheRefresher;
+import com.weatherapi.cache.PersistentCacheStore;
+import com.weatherapi.cache.TieredCaffeineCache;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import java.util.concurrent.TimeUnit;
+import java.time.Duration;
+import java.util.Map;
 
 @Configuration
 public class CacheConfig {
 
+    // Hard TTLs: entries are never served after this age
+    @Value("${cache.ttl.weather:600}")
+    private long weatherTtlSeconds;
+
+    @Value("${cache.ttl.forecast:1800}")
+    private long forecastTtlSeconds;
+
+    @Value("${cache.ttl.locations:3600}")
+    private long locationsTtlSeconds;
+
+    // Soft TTLs: hits past this age are served stale while one background reload runs (0 disables)
+    @Value("${cache.refresh.weather:480}")
+    private long weatherRefreshSeconds;
+
+    @Value("${cache.refresh.forecast:1440}")
+    private long forecastRefreshSeconds;
+
+    @Value("${cache.refresh.locations:0}")
+    private long locationsRefreshSeconds;
+
+    // Estimated heap bytes of keys and compact values per cache
+    @Value("${cache.max-mb:2}")
+    private long maxMegabytes;
+
+    @Bean
+    @ConditionalOnProperty(name = "cache.l2.enabled", havingValue = "true")
+    public PersistentCacheStore persistentCacheStore(
+            @Value("${cache.l2.path:cache-data/l2-cache.mv.db}") String path,
+            @Value("${cache.l2.page-cache-mb:8}") int pageCacheMb,
+            @Value("${cache.l2.max-entries:100000}") long maxEntries,
+            @Value("${cache.l2.write-queue:10000}") int writeQueue,
+            @Value("${cache.l2.sweep-seconds:60}") long sweepSeconds) {
+        return new PersistentCacheStore(path, pageCacheMb, hardTtls(), maxEntries, writeQueue,
+                Duration.ofSeconds(sweepSeconds));
+    }
+
     @Bean
-    public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager("weather", "forecast", "locations");
-        cacheManager.setCaffeine(Caffeine.newBuilder()
-                .expireAfterWrite(10, TimeUnit.MINUTES)  // 10 minutes TTL
-                .maximumSize(1000)
-                .recordStats());
+    public CacheManager cacheManager(CacheRefresher cacheRefresher, ObjectProvider<PersistentCacheStore> l2Store) {
+        Map<String, Duration> hardTtls = hardTtls();
+        Map<String, Long> refreshSeconds = Map.of(
+                "weather", weatherRefreshSeconds,
+                "forecast", forecastRefreshSeconds,
+                "locations", locationsRefreshSeconds);
+        PersistentCacheStore l2 = l2Store.getIfAvailable();
+
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected Cache adaptCaffeineCache(String name, AsyncCache<Object, Object> cache) {
+                long refresh = refreshSeconds.getOrDefault(name, 0L);
+                return new TieredCaffeineCache(name, cache, isAllowNullValues(), hardTtls.get(name),
+                        refresh > 0 ? Duration.ofSeconds(refresh) : null, cacheRefresher, l2);
+            }
+        };
+        // Backs @Cacheable methods returning Mono with an AsyncCache; the blocking
+        // methods keep working through its synchronous view and share the same entries.
+        cacheManager.setAsyncCacheMode(true);
+
+        hardTtls.forEach((name, ttl) -> cacheManager.registerCustomCache(name, cacheBuilder(ttl).buildAsync()));
         return cacheManager;
     }
-}
\ No newline at end of file
+
+    private Map<String, Duration> hardTtls() {
+        return Map.of(
+                "weather", Duration.ofSeconds(weatherTtlSeconds),
+                "forecast", Duration.ofSeconds(forecastTtlSeconds),
+                "locations", Duration.ofSeconds(locationsTtlSeconds));
+    }
+
+    private Caffeine<Object, Object> cacheBuilder(Duration ttl) {
+        return Caffeine.newBuilder()
+                .expireAfter(TieredCaffeineCache.expireAfterWrite(ttl))
+                .maximumWeight(maxMegabytes * 1024 * 1024)
+                .weigher(TieredCaffeineCache::weigh)
+                .recordStats();
+    }
+}
@@ -0,0 +1,51 @@
+package com.weatherapi.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class ExecutionConfig implements WebMvcConfigurer {
+
+    @Value("${weather.execution.mode:blocking}")
+    private String executionMode;
+
+    @Value("${weather.execution.upstream-pool-size:32}")
+    private int upstreamPoolSize;
+
+    private final ObjectProvider<AsyncTaskExecutor> mvcAsyncExecutor;
+
+    public ExecutionConfig(@Qualifier("mvcAsyncExecutor") ObjectProvider<AsyncTaskExecutor> mvcAsyncExecutor) {
+        this.mvcAsyncExecutor = mvcAsyncExecutor;
+    }
+
+    // Writes streamed (NDJSON/SSE) and reactive response bodies for MVC handlers
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(mvcAsyncExecutor.getObject());
+    }
+
+    // A bean, so the context initializes it and shuts its threads down on close. In virtual mode
+    // every task gets its own virtual thread; Tomcat's request threads are switched over by
+    // spring.threads.virtual.enabled (see ExecutionModeEnvironmentPostProcessor). Defining this
+    // Executor makes Boot back off its applicationTaskExecutor.
+    @Bean
+    public AsyncTaskExecutor mvcAsyncExecutor() {
+        if ("virtual".equals(executionMode)) {
+            return new VirtualThreadTaskExecutor("mvc-async-");
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(upstreamPoolSize);
+        executor.setMaxPoolSize(upstreamPoolSize);
+        executor.setThreadNamePrefix("mvc-async-");
+        return executor;
+    }
+}
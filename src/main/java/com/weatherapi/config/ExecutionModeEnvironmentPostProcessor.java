@@ -0,0 +1,31 @@
+package com.weatherapi.config;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+import java.util.Map;
+
+/**
+ * Maps weather.execution.mode=virtual onto Boot's spring.threads.virtual.enabled,
+ * which runs Tomcat's request handling on virtual threads. Boot silently ignores
+ * that property below Java 21, so virtual mode fails at startup there instead of
+ * quietly running on platform threads.
+ */
+public class ExecutionModeEnvironmentPostProcessor implements EnvironmentPostProcessor {
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        if (!"virtual".equals(environment.getProperty("weather.execution.mode"))) {
+            return;
+        }
+
+        int javaVersion = Runtime.version().feature();
+        if (javaVersion < 21) {
+            throw new IllegalStateException("weather.execution.mode=virtual requires a Java 21+ runtime, but this is Java "
+                    + javaVersion + "; use blocking or reactive mode, or run on Java 21");
+        }
+        environment.getPropertySources().addFirst(new MapPropertySource("weatherExecutionMode",
+                Map.of("spring.threads.virtual.enabled", "true")));
+    }
+}
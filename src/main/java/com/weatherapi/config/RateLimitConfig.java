@@ -1,2 +1,89 @@
 package com.weatherapi.config;
-public class RateLimitConfig {}
\ No newline at end of file
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weatherapi.ratelimit.KeyedRateLimiter;
+import com.weatherapi.ratelimit.RateLimitInterceptor;
+import com.weatherapi.ratelimit.UpstreamRateLimiter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import java.time.Duration;
+
+@Configuration
+public class RateLimitConfig implements WebMvcConfigurer {
+
+    @Value("${rate-limit.client.capacity:10}")
+    private long clientCapacity;
+
+    @Value("${rate-limit.client.refill-seconds:60}")
+    private long clientRefillSeconds;
+
+    @Value("${rate-limit.client.max-clients:100000}")
+    private long maxClients;
+
+    @Value("${rate-limit.client.idle-seconds:600}")
+    private long clientIdleSeconds;
+
+    private final ObjectMapper objectMapper;
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    public RateLimitConfig(ObjectMapper objectMapper, Environment environment, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Bean
+    public KeyedRateLimiter clientRateLimiter() {
+        // An idle bucket is only dropped once it would have refilled completely
+        long idleSeconds = Math.max(clientIdleSeconds, clientRefillSeconds);
+        KeyedRateLimiter limiter = new KeyedRateLimiter(clientCapacity, Duration.ofSeconds(clientRefillSeconds),
+                maxClients, Duration.ofSeconds(idleSeconds));
+        bindMetrics(limiter, "client", "all");
+        return limiter;
+    }
+
+    // Providers without a rate-limit.upstream.<provider>.per-minute property are not limited
+    @Bean
+    public UpstreamRateLimiter upstreamRateLimiter() {
+        return new UpstreamRateLimiter(provider -> {
+            Long permits = environment.getProperty("rate-limit.upstream." + provider + ".per-minute", Long.class);
+            if (permits == null) {
+                return null;
+            }
+            KeyedRateLimiter limiter = perMinute(permits);
+            bindMetrics(limiter, "upstream", provider);
+            return limiter;
+        });
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        String message = "Rate limit exceeded. Maximum " + clientCapacity + " requests per "
+                + (clientRefillSeconds == 60 ? "minute." : clientRefillSeconds + " seconds.");
+        registry.addInterceptor(new RateLimitInterceptor(clientRateLimiter(), objectMapper, message))
+                .addPathPatterns("/weather/**", "/locations/**");
+    }
+
+    // weather.ratelimit.decisions{scope, name, result}: rejections are the interesting series
+    private void bindMetrics(KeyedRateLimiter limiter, String scope, String name) {
+        FunctionCounter.builder("weather.ratelimit.decisions", limiter, KeyedRateLimiter::getAllowedCount)
+                .description("Rate-limit decisions")
+                .tags("scope", scope, "name", name, "result", "allowed")
+                .register(meterRegistry);
+        FunctionCounter.builder("weather.ratelimit.decisions", limiter, KeyedRateLimiter::getRejectedCount)
+                .description("Rate-limit decisions")
+                .tags("scope", scope, "name", name, "result", "rejected")
+                .register(meterRegistry);
+    }
+
+    private KeyedRateLimiter perMinute(long permits) {
+        return new KeyedRateLimiter(permits, Duration.ofMinutes(1), 1, Duration.ofDays(1));
+    }
+}
@@ -1,14 +1,101 @@
 package com.weatherapi.config;
 
+import com.weatherapi.client.UpstreamPoolMetrics;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import java.time.Duration;
 
+/**
+ * One WebClient per upstream provider, each on its own connection pool, so a slow
+ * provider can only exhaust its own connections.
+ */
 @Configuration
 public class WebClientConfig {
 
+    @Value("${weather.http.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${weather.http.pending-acquire-max:200}")
+    private int pendingAcquireMax;
+
+    @Value("${weather.http.pending-acquire-timeout-ms:2000}")
+    private long pendingAcquireTimeoutMs;
+
+    @Value("${weather.http.max-idle-seconds:30}")
+    private long maxIdleSeconds;
+
+    @Value("${weather.http.max-life-seconds:300}")
+    private long maxLifeSeconds;
+
+    @Value("${weather.http.connect-timeout-ms:2000}")
+    private int connectTimeoutMs;
+
+    @Value("${weather.http.response-timeout-ms:5000}")
+    private long responseTimeoutMs;
+
+    @Value("${weather.http.http2:true}")
+    private boolean http2;
+
     @Bean
-    public WebClient webClient() {
-        return WebClient.builder().build();
+    public UpstreamPoolMetrics upstreamPoolMetrics() {
+        return new UpstreamPoolMetrics();
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider openWeatherConnections() {
+        return connectionProvider("openweather");
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider weatherApiConnections() {
+        return connectionProvider("weatherapi");
+    }
+
+    @Bean
+    public WebClient openWeatherWebClient(WebClient.Builder builder,
+                                          @Qualifier("openWeatherConnections") ConnectionProvider connections) {
+        return builder.clientConnector(new ReactorClientHttpConnector(httpClient(connections))).build();
+    }
+
+    @Bean
+    public WebClient weatherApiWebClient(WebClient.Builder builder,
+                                         @Qualifier("weatherApiConnections") ConnectionProvider connections) {
+        return builder.clientConnector(new ReactorClientHttpConnector(httpClient(connections))).build();
+    }
+
+    private ConnectionProvider connectionProvider(String name) {
+        return ConnectionProvider.builder(name)
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMax)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofSeconds(maxIdleSeconds))
+                .maxLifeTime(Duration.ofSeconds(maxLifeSeconds))
+                // Close idle and expired connections even when the pool is not being used
+                .evictInBackground(Duration.ofSeconds(maxIdleSeconds))
+                .metrics(true, this::upstreamPoolMetrics)
+                .build();
+    }
+
+    private HttpClient httpClient(ConnectionProvider connections) {
+        // HTTP/2 is negotiated over TLS (ALPN); servers without it stay on keep-alive HTTP/1.1
+        HttpProtocol[] protocols = http2
+                ? new HttpProtocol[] {HttpProtocol.HTTP11, HttpProtocol.H2}
+                : new HttpProtocol[] {HttpProtocol.HTTP11};
+
+        return HttpClient.create(connections)
+                .protocol(protocols)
+                .keepAlive(true)
+                .compress(true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .responseTimeout(Duration.ofMillis(responseTimeoutMs));
     }
-}
\ No newline at end of file
+}
@@ -1,26 +1,145 @@
 package com.weatherapi.controller;
 
+import com.weatherapi.cache.CacheRefresher;
+import com.weatherapi.cache.ResponseBytesCache;
+import com.weatherapi.cache.TieredCaffeineCache;
+import com.weatherapi.client.UpstreamCalls;
+import com.weatherapi.client.UpstreamPoolMetrics;
+import com.weatherapi.metrics.AllocationTracker;
+import com.weatherapi.provider.WeatherAggregator;
+import com.weatherapi.provider.WeatherProvider;
+import com.weatherapi.ratelimit.KeyedRateLimiter;
+import com.weatherapi.ratelimit.UpstreamRateLimiter;
+import com.weatherapi.service.CacheWarmer;
+import com.weatherapi.service.LocationIndex;
+import com.weatherapi.service.RequestCoalescer;
+import com.weatherapi.service.WeatherSubscriptionService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/health")
 public class HealthController {
 
+    private final RequestCoalescer requestCoalescer;
+    private final CacheRefresher cacheRefresher;
+    private final CacheManager cacheManager;
+    private final WeatherSubscriptionService subscriptionService;
+    private final KeyedRateLimiter clientRateLimiter;
+    private final UpstreamRateLimiter upstreamRateLimiter;
+    private final UpstreamPoolMetrics upstreamPoolMetrics;
+    private final UpstreamCalls upstreamCalls;
+    private final WeatherAggregator weatherAggregator;
+    private final LocationIndex locationIndex;
+    private final ResponseBytesCache responseBytes;
+    private final CacheWarmer cacheWarmer;
+    private final AllocationTracker allocationTracker;
+
+    @Value("${weather.execution.mode:blocking}")
+    private String executionMode;
+
+    public HealthController(RequestCoalescer requestCoalescer, CacheRefresher cacheRefresher,
+                            CacheManager cacheManager, WeatherSubscriptionService subscriptionService,
+                            KeyedRateLimiter clientRateLimiter, UpstreamRateLimiter upstreamRateLimiter,
+                            UpstreamPoolMetrics upstreamPoolMetrics, UpstreamCalls upstreamCalls,
+                            WeatherAggregator weatherAggregator, LocationIndex locationIndex,
+                            ResponseBytesCache responseBytes, CacheWarmer cacheWarmer,
+                            AllocationTracker allocationTracker) {
+        this.requestCoalescer = requestCoalescer;
+        this.cacheRefresher = cacheRefresher;
+        this.cacheManager = cacheManager;
+        this.subscriptionService = subscriptionService;
+        this.clientRateLimiter = clientRateLimiter;
+        this.upstreamRateLimiter = upstreamRateLimiter;
+        this.upstreamPoolMetrics = upstreamPoolMetrics;
+        this.upstreamCalls = upstreamCalls;
+        this.weatherAggregator = weatherAggregator;
+        this.locationIndex = locationIndex;
+        this.responseBytes = responseBytes;
+        this.cacheWarmer = cacheWarmer;
+        this.allocationTracker = allocationTracker;
+    }
+
     @GetMapping
     public Map<String, Object> healthCheck() {
-        return Map.of(
-                "status", "UP",
-                "timestamp", java.time.LocalDateTime.now().toString(),
-                "service", "Weather Aggregation API",
-                "version", "1.0.0",
-                "features", Map.of(
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        return Map.ofEntries(
+                Map.entry("status", "UP"),
+                Map.entry("timestamp", java.time.LocalDateTime.now().toString()),
+                Map.entry("service", "Weather Aggregation API"),
+                Map.entry("version", "1.0.0"),
+                Map.entry("features", Map.of(
                         "caching", "ENABLED",
-                        "sources", "OpenWeather, WeatherAPI",
-                        "rate_limiting", "SIMULATED"
-                )
+                        "sources", weatherAggregator.getProviders().stream()
+                                .map(WeatherProvider::getDisplayName)
+                                .collect(Collectors.joining(", ")),
+                        "rate_limiting", "TOKEN_BUCKET"
+                )),
+                // Platform thread counts (virtual threads are not included) and heap bytes allocated since startup
+                Map.entry("execution", Map.of(
+                        "mode", executionMode,
+                        "liveThreads", threads.getThreadCount(),
+                        "peakThreads", threads.getPeakThreadCount(),
+                        "allocatedBytes", allocationTracker.getAllocatedBytes()
+                )),
+                // Upstream fetches per cache and requests that joined one already in flight
+                Map.entry("coalescing", requestCoalescer.getStats()),
+                // Background reloads of entries served past their soft TTL
+                Map.entry("refreshAhead", cacheRefresher.getStats()),
+                // Hit/miss counts per cache tier
+                Map.entry("caches", cacheStats()),
+                // Responses written from pre-serialized bytes vs. bodies (re)built for changed data
+                Map.entry("responseCache", responseBytes.getStats()),
+                // Predictive warming of the most requested locations: progress of the latest run
+                Map.entry("warmup", cacheWarmer.getStats()),
+                // Places known to the autocomplete index and searches it answered without upstream
+                Map.entry("locationIndex", Map.of(
+                        "places", locationIndex.getSize(),
+                        "gazetteer", locationIndex.isGazetteerLoaded(),
+                        "resolvedQueries", locationIndex.getResolvedQueryCount(),
+                        "hits", locationIndex.getHitCount(),
+                        "misses", locationIndex.getMissCount()
+                )),
+                Map.entry("subscriptions", Map.of(
+                        "locations", subscriptionService.getTopicCount(),
+                        "subscribers", subscriptionService.getSubscriberCount()
+                )),
+                // Inbound decisions across all clients and outbound permits per provider
+                Map.entry("rateLimits", Map.of(
+                        "clients", Map.of(
+                                "tracked", clientRateLimiter.getTrackedKeys(),
+                                "allowed", clientRateLimiter.getAllowedCount(),
+                                "rejected", clientRateLimiter.getRejectedCount()
+                        ),
+                        "upstream", upstreamRateLimiter.getStats()
+                )),
+                // Connection pool usage per upstream provider
+                Map.entry("connectionPools", upstreamPoolMetrics.getStats()),
+                // Observed p95 per upstream call, hedged requests sent and won, deadline misses
+                Map.entry("upstreamLatency", upstreamCalls.getStats()),
+                // Circuit breaker state and adaptive in-flight limit per upstream provider
+                Map.entry("providers", upstreamCalls.getProviderStats()),
+                // Strategy used to merge provider readings and each provider's recent success score
+                Map.entry("aggregation", weatherAggregator.getStats())
         );
     }
-}
\ No newline at end of file
+
+    private Map<String, Object> cacheStats() {
+        Map<String, Object> stats = new TreeMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            if (cacheManager.getCache(name) instanceof TieredCaffeineCache cache) {
+                stats.put(name, cache.getTierStats());
+            }
+        }
+        return stats;
+    }
+}
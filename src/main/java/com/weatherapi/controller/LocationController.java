@@ -1,47 +1,39 @@
 package com.weatherapi.controller;
 
+import com.weatherapi.cache.LocationKeyResolver;
+import com.weatherapi.cache.ResponseBytesCache;
 import com.weatherapi.model.ApiResponse;
 import com.weatherapi.model.LocationData;
 import com.weatherapi.service.LocationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
+@ConditionalOnExpression("'${weather.execution.mode:blocking}' != 'reactive'")
 @RequestMapping("/locations")
 public class LocationController {
 
+    private static final Logger log = LoggerFactory.getLogger(LocationController.class);
+
     private final LocationService locationService;
-    private int requestCount = 0;
-    private long lastResetTime = System.currentTimeMillis();
+    private final ResponseBytesCache responseBytes;
+    private final LocationKeyResolver locationKeys;
 
-    public LocationController(LocationService locationService) {
+    public LocationController(LocationService locationService, ResponseBytesCache responseBytes,
+                              LocationKeyResolver locationKeys) {
         this.locationService = locationService;
-    }
-
-    private boolean checkRateLimit() {
-        long currentTime = System.currentTimeMillis();
-        if (currentTime - lastResetTime > 60000) {
-            requestCount = 0;
-            lastResetTime = currentTime;
-        }
-
-        if (requestCount >= 10) {
-            return false;
-        }
-
-        requestCount++;
-        return true;
+        this.responseBytes = responseBytes;
+        this.locationKeys = locationKeys;
     }
 
     @GetMapping("/search")
-    public ResponseEntity<ApiResponse<LocationData>> searchLocations(@RequestParam String q) {
+    public ResponseEntity<?> searchLocations(@RequestParam String q, @RequestHeader HttpHeaders headers) {
 
-        System.out.println("🔍 Location search for: " + q);
-
-        if (!checkRateLimit()) {
-            return ResponseEntity.status(429)
-                    .body(ApiResponse.error("Rate limit exceeded. Maximum 10 requests per minute."));
-        }
+        log.debug("request=locations query={}", q);
 
         if (q == null || q.trim().isEmpty()) {
             return ResponseEntity.badRequest()
@@ -50,7 +42,7 @@ public class LocationController {
 
         try {
             LocationData locations = locationService.searchLocations(q.trim());
-            return ResponseEntity.ok(ApiResponse.success(locations));
+            return responseBytes.respond("locations", locationKeys.normalize(q), locations, headers);
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
                     .body(ApiResponse.error("Error searching locations: " + e.getMessage()));
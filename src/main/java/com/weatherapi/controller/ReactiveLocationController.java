@@ -0,0 +1,50 @@
+package com.weatherapi.controller;
+
+import com.weatherapi.cache.LocationKeyResolver;
+import com.weatherapi.cache.ResponseBytesCache;
+import com.weatherapi.model.ApiResponse;
+import com.weatherapi.model.LocationData;
+import com.weatherapi.service.LocationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/locations")
+@ConditionalOnProperty(name = "weather.execution.mode", havingValue = "reactive")
+public class ReactiveLocationController {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveLocationController.class);
+
+    private final LocationService locationService;
+    private final ResponseBytesCache responseBytes;
+    private final LocationKeyResolver locationKeys;
+
+    public ReactiveLocationController(LocationService locationService, ResponseBytesCache responseBytes,
+                                      LocationKeyResolver locationKeys) {
+        this.locationService = locationService;
+        this.responseBytes = responseBytes;
+        this.locationKeys = locationKeys;
+    }
+
+    @GetMapping("/search")
+    public Mono<ResponseEntity<?>> searchLocations(@RequestParam String q, @RequestHeader HttpHeaders headers) {
+
+        log.debug("request=locations query={} mode=reactive", q);
+
+        if (q == null || q.trim().isEmpty()) {
+            return Mono.just(ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Query parameter 'q' is required")));
+        }
+
+        return locationService.searchLocationsReactive(q.trim())
+                .<ResponseEntity<?>>map(locations ->
+                        responseBytes.respond("locations", locationKeys.normalize(q), locations, headers))
+                .onErrorResume(e -> Mono.just(ResponseEntity.internalServerError()
+                        .body(ApiResponse.error("Error searching locations: " + e.getMessage()))));
+    }
+}
@@ -0,0 +1,140 @@
+package com.weatherapi.controller;
+
+import com.weatherapi.cache.LocationKeyResolver;
+import com.weatherapi.cache.ResponseBytesCache;
+import com.weatherapi.model.ApiResponse;
+import com.weatherapi.model.BatchRequest;
+import com.weatherapi.model.BatchResponse;
+import com.weatherapi.model.WeatherData;
+import com.weatherapi.model.ForecastData;
+import com.weatherapi.service.LocationPopularity;
+import com.weatherapi.service.WeatherBatchService;
+import com.weatherapi.service.WeatherService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/weather")
+@ConditionalOnProperty(name = "weather.execution.mode", havingValue = "reactive")
+public class ReactiveWeatherController {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveWeatherController.class);
+
+    private final WeatherService weatherService;
+    private final WeatherBatchService weatherBatchService;
+    private final ResponseBytesCache responseBytes;
+    private final LocationKeyResolver locationKeys;
+    private final LocationPopularity popularity;
+
+    public ReactiveWeatherController(WeatherService weatherService, WeatherBatchService weatherBatchService,
+                                     ResponseBytesCache responseBytes, LocationKeyResolver locationKeys,
+                                     LocationPopularity popularity) {
+        this.weatherService = weatherService;
+        this.weatherBatchService = weatherBatchService;
+        this.responseBytes = responseBytes;
+        this.locationKeys = locationKeys;
+        this.popularity = popularity;
+    }
+
+    @GetMapping("/current")
+    public Mono<ResponseEntity<?>> getCurrentWeather(
+            @RequestParam String location,
+            @RequestHeader HttpHeaders headers) {
+
+        log.debug("request=current location={} mode=reactive", location);
+
+        if (location == null || location.trim().isEmpty()) {
+            return Mono.just(ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Location parameter is required")));
+        }
+
+        popularity.record(location.trim(), 0);
+        return weatherService.getCurrentWeatherReactive(location.trim())
+                .<ResponseEntity<?>>map(weatherData ->
+                        responseBytes.respond("weather", locationKeys.resolve(location.trim()), weatherData, headers))
+                .onErrorResume(e -> Mono.just(ResponseEntity.internalServerError()
+                        .body(ApiResponse.error("Error fetching weather data: " + e.getMessage()))));
+    }
+
+    @GetMapping("/forecast")
+    public Mono<ResponseEntity<?>> getForecast(
+            @RequestParam String location,
+            @RequestParam(defaultValue = "5") int days,
+            @RequestHeader HttpHeaders headers) {
+
+        log.debug("request=forecast location={} days={} mode=reactive", location, days);
+
+        if (location == null || location.trim().isEmpty()) {
+            return Mono.just(ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Location parameter is required")));
+        }
+
+        if (days < 1 || days > 10) {
+            return Mono.just(ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Days must be between 1 and 10")));
+        }
+
+        popularity.record(location.trim(), days);
+        return weatherService.getForecastEntryReactive(location.trim(), days)
+                .<ResponseEntity<?>>map(forecast -> responseBytes.respond("forecast", ":" + days,
+                        locationKeys.resolve(location.trim()), forecast, entry -> entry.slice(days), headers))
+                .onErrorResume(e -> Mono.just(ResponseEntity.internalServerError()
+                        .body(ApiResponse.error("Error fetching forecast: " + e.getMessage()))));
+    }
+
+    @PostMapping("/current/batch")
+    public Mono<ResponseEntity<ApiResponse<BatchResponse<WeatherData>>>> getCurrentWeatherBatch(
+            @RequestBody BatchRequest request) {
+
+        log.debug("request=batch-current locations={} mode=reactive", request.getLocations());
+
+        String validationError = validateBatch(request);
+        if (validationError != null) {
+            return Mono.just(ResponseEntity.badRequest().body(ApiResponse.error(validationError)));
+        }
+
+        return weatherBatchService.getCurrentWeather(request.getLocations())
+                .map(results -> ResponseEntity.ok(ApiResponse.success(results)))
+                .onErrorResume(e -> Mono.just(ResponseEntity.internalServerError()
+                        .body(ApiResponse.error("Error fetching weather data: " + e.getMessage()))));
+    }
+
+    @PostMapping("/forecast/batch")
+    public Mono<ResponseEntity<ApiResponse<BatchResponse<ForecastData>>>> getForecastBatch(
+            @RequestBody BatchRequest request) {
+
+        int days = request.getDays() != null ? request.getDays() : 5;
+        log.debug("request=batch-forecast locations={} days={} mode=reactive", request.getLocations(), days);
+
+        String validationError = validateBatch(request);
+        if (validationError != null) {
+            return Mono.just(ResponseEntity.badRequest().body(ApiResponse.error(validationError)));
+        }
+
+        if (days < 1 || days > 10) {
+            return Mono.just(ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Days must be between 1 and 10")));
+        }
+
+        return weatherBatchService.getForecast(request.getLocations(), days)
+                .map(results -> ResponseEntity.ok(ApiResponse.success(results)))
+                .onErrorResume(e -> Mono.just(ResponseEntity.internalServerError()
+                        .body(ApiResponse.error("Error fetching forecast: " + e.getMessage()))));
+    }
+
+    private String validateBatch(BatchRequest request) {
+        if (request.getLocations() == null || request.getLocations().isEmpty()) {
+            return "At least one location is required";
+        }
+
+        if (request.getLocations().size() > weatherBatchService.getMaxLocations()) {
+            return "At most " + weatherBatchService.getMaxLocations() + " locations per batch";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,136 @@
+package com.weatherapi.controller;
+
+import com.weatherapi.model.ApiResponse;
+import com.weatherapi.service.LocationService;
+import com.weatherapi.service.WeatherBatchService;
+import com.weatherapi.service.WeatherSubscriptionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Streaming variants of the lookup endpoints. Results are written as NDJSON
+ * (Accept: application/x-ndjson) or Server-Sent Events (the default), one element
+ * per location as soon as it resolves. The next element is only requested once
+ * the previous one has been written to the client.
+ */
+@RestController
+public class StreamController {
+
+    private static final Logger log = LoggerFactory.getLogger(StreamController.class);
+
+    private final WeatherBatchService weatherBatchService;
+    private final LocationService locationService;
+    private final WeatherSubscriptionService subscriptionService;
+
+    @Value("${weather.subscriptions.heartbeat-seconds:15}")
+    private long heartbeatSeconds;
+
+    public StreamController(WeatherBatchService weatherBatchService, LocationService locationService,
+                            WeatherSubscriptionService subscriptionService) {
+        this.weatherBatchService = weatherBatchService;
+        this.locationService = locationService;
+        this.subscriptionService = subscriptionService;
+    }
+
+    @GetMapping(value = "/weather/current/stream", produces = {
+            MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public ResponseEntity<Flux<?>> streamCurrentWeather(@RequestParam MultiValueMap<String, String> params) {
+        List<String> location = locations(params);
+
+        log.debug("request=stream-current location={}", location);
+
+        ResponseEntity<Flux<?>> rejection = validate(location);
+        if (rejection != null) {
+            return rejection;
+        }
+
+        return ResponseEntity.ok(weatherBatchService.streamCurrentWeather(location));
+    }
+
+    @GetMapping(value = "/weather/forecast/stream", produces = {
+            MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public ResponseEntity<Flux<?>> streamForecast(
+            @RequestParam MultiValueMap<String, String> params,
+            @RequestParam(defaultValue = "5") int days) {
+        List<String> location = locations(params);
+
+        log.debug("request=stream-forecast location={} days={}", location, days);
+
+        ResponseEntity<Flux<?>> rejection = validate(location);
+        if (rejection != null) {
+            return rejection;
+        }
+
+        if (days < 1 || days > 10) {
+            return ResponseEntity.badRequest()
+                    .body(Flux.just(ApiResponse.error("Days must be between 1 and 10")));
+        }
+
+        return ResponseEntity.ok(weatherBatchService.streamForecast(location, days));
+    }
+
+    @GetMapping(value = "/locations/search/stream", produces = {
+            MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public ResponseEntity<Flux<?>> streamLocations(@RequestParam String q) {
+
+        log.debug("request=stream-locations query={}", q);
+
+        if (q == null || q.trim().isEmpty()) {
+            return ResponseEntity.badRequest()
+                    .body(Flux.just(ApiResponse.error("Query parameter 'q' is required")));
+        }
+
+        return ResponseEntity.ok(locationService.streamLocations(q.trim()));
+    }
+
+    // Long-lived SSE stream pushing a "weather" event whenever the location's data changes.
+    // Comment heartbeats keep idle connections open and surface disconnected clients.
+    @GetMapping(value = "/weather/current/subscribe", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<Flux<?>> subscribeCurrentWeather(@RequestParam String location) {
+
+        log.debug("request=subscribe location={}", location);
+
+        if (location == null || location.trim().isEmpty()) {
+            return ResponseEntity.badRequest()
+                    .body(Flux.just(ApiResponse.error("Location parameter is required")));
+        }
+
+        Flux<ServerSentEvent<?>> updates = subscriptionService.subscribe(location.trim())
+                .map(data -> ServerSentEvent.builder(data).event("weather").build());
+        Flux<ServerSentEvent<?>> heartbeats = Flux.interval(Duration.ofSeconds(heartbeatSeconds))
+                .map(tick -> ServerSentEvent.builder().comment("keepalive").build());
+
+        return ResponseEntity.ok(Flux.merge(updates, heartbeats));
+    }
+
+    // Only repeated location parameters separate places. Binding a List<String> would also
+    // split "London,GB" and "51.5074,-0.1278" at the comma into two lookups each.
+    private static List<String> locations(MultiValueMap<String, String> params) {
+        List<String> locations = params.get("location");
+        return locations != null ? locations : List.of();
+    }
+
+    // Errors are sent as a single ApiResponse element in the requested streaming format
+    private ResponseEntity<Flux<?>> validate(List<String> locations) {
+        if (locations == null || locations.isEmpty()) {
+            return ResponseEntity.badRequest()
+                    .body(Flux.just(ApiResponse.error("At least one location is required")));
+        }
+
+        if (locations.size() > weatherBatchService.getMaxLocations()) {
+            return ResponseEntity.badRequest()
+                    .body(Flux.just(ApiResponse.error(
+                            "At most " + weatherBatchService.getMaxLocations() + " locations per request")));
+        }
+        return null;
+    }
+}
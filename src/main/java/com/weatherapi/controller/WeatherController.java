@@ -1,58 +1,63 @@
 package com.weatherapi.controller;
 
+import com.weatherapi.cache.CachedForecast;
+import com.weatherapi.cache.LocationKeyResolver;
+import com.weatherapi.cache.ResponseBytesCache;
 import com.weatherapi.model.ApiResponse;
+import com.weatherapi.model.BatchRequest;
+import com.weatherapi.model.BatchResponse;
 import com.weatherapi.model.WeatherData;
 import com.weatherapi.model.ForecastData;
+import com.weatherapi.service.LocationPopularity;
+import com.weatherapi.service.WeatherBatchService;
 import com.weatherapi.service.WeatherService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
+@ConditionalOnExpression("'${weather.execution.mode:blocking}' != 'reactive'")
 @RequestMapping("/weather")
 public class WeatherController {
 
-    private final WeatherService weatherService;
-    private int requestCount = 0;
-    private long lastResetTime = System.currentTimeMillis();
+    private static final Logger log = LoggerFactory.getLogger(WeatherController.class);
 
-    public WeatherController(WeatherService weatherService) {
+    private final WeatherService weatherService;
+    private final WeatherBatchService weatherBatchService;
+    private final ResponseBytesCache responseBytes;
+    private final LocationKeyResolver locationKeys;
+    private final LocationPopularity popularity;
+
+    public WeatherController(WeatherService weatherService, WeatherBatchService weatherBatchService,
+                             ResponseBytesCache responseBytes, LocationKeyResolver locationKeys,
+                             LocationPopularity popularity) {
         this.weatherService = weatherService;
-    }
-
-    private boolean checkRateLimit() {
-        long currentTime = System.currentTimeMillis();
-        if (currentTime - lastResetTime > 60000) {
-            requestCount = 0;
-            lastResetTime = currentTime;
-        }
-
-        if (requestCount >= 10) {
-            return false;
-        }
-
-        requestCount++;
-        return true;
+        this.weatherBatchService = weatherBatchService;
+        this.responseBytes = responseBytes;
+        this.locationKeys = locationKeys;
+        this.popularity = popularity;
     }
 
     @GetMapping("/current")
-    public ResponseEntity<ApiResponse<WeatherData>> getCurrentWeather(
-            @RequestParam String location) {
-
-        System.out.println("🌤️  Current weather request for: " + location);
+    public ResponseEntity<?> getCurrentWeather(
+            @RequestParam String location,
+            @RequestHeader HttpHeaders headers) {
 
-        if (!checkRateLimit()) {
-            return ResponseEntity.status(429)
-                    .body(ApiResponse.error("Rate limit exceeded. Maximum 10 requests per minute."));
-        }
+        log.debug("request=current location={}", location);
 
         if (location == null || location.trim().isEmpty()) {
             return ResponseEntity.badRequest()
                     .body(ApiResponse.error("Location parameter is required"));
         }
 
+        popularity.record(location.trim(), 0);
         try {
             WeatherData weatherData = weatherService.getCurrentWeather(location.trim());
-            return ResponseEntity.ok(ApiResponse.success(weatherData));
+            // Looked up after the fetch, which may have registered the place's canonical key
+            return responseBytes.respond("weather", locationKeys.resolve(location.trim()), weatherData, headers);
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
                     .body(ApiResponse.error("Error fetching weather data: " + e.getMessage()));
@@ -60,16 +65,12 @@ public class WeatherController {
     }
 
     @GetMapping("/forecast")
-    public ResponseEntity<ApiResponse<ForecastData>> getForecast(
+    public ResponseEntity<?> getForecast(
             @RequestParam String location,
-            @RequestParam(defaultValue = "5") int days) {
+            @RequestParam(defaultValue = "5") int days,
+            @RequestHeader HttpHeaders headers) {
 
-        System.out.println("📅 Forecast request for: " + location + ", days: " + days);
-
-        if (!checkRateLimit()) {
-            return ResponseEntity.status(429)
-                    .body(ApiResponse.error("Rate limit exceeded. Maximum 10 requests per minute."));
-        }
+        log.debug("request=forecast location={} days={}", location, days);
 
         if (location == null || location.trim().isEmpty()) {
             return ResponseEntity.badRequest()
@@ -81,12 +82,71 @@ public class WeatherController {
                     .body(ApiResponse.error("Days must be between 1 and 10"));
         }
 
+        popularity.record(location.trim(), days);
         try {
-            ForecastData forecastData = weatherService.getForecast(location.trim(), days);
-            return ResponseEntity.ok(ApiResponse.success(forecastData));
+            CachedForecast forecast = weatherService.getForecastEntry(location.trim(), days);
+            return responseBytes.respond("forecast", ":" + days, locationKeys.resolve(location.trim()), forecast,
+                    entry -> entry.slice(days), headers);
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
                     .body(ApiResponse.error("Error fetching forecast: " + e.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    @PostMapping("/current/batch")
+    public ResponseEntity<ApiResponse<BatchResponse<WeatherData>>> getCurrentWeatherBatch(
+            @RequestBody BatchRequest request) {
+
+        log.debug("request=batch-current locations={}", request.getLocations());
+
+        String validationError = validateBatch(request);
+        if (validationError != null) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(validationError));
+        }
+
+        try {
+            BatchResponse<WeatherData> results = weatherBatchService.getCurrentWeather(request.getLocations()).block();
+            return ResponseEntity.ok(ApiResponse.success(results));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                    .body(ApiResponse.error("Error fetching weather data: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/forecast/batch")
+    public ResponseEntity<ApiResponse<BatchResponse<ForecastData>>> getForecastBatch(
+            @RequestBody BatchRequest request) {
+
+        int days = request.getDays() != null ? request.getDays() : 5;
+        log.debug("request=batch-forecast locations={} days={}", request.getLocations(), days);
+
+        String validationError = validateBatch(request);
+        if (validationError != null) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(validationError));
+        }
+
+        if (days < 1 || days > 10) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Days must be between 1 and 10"));
+        }
+
+        try {
+            BatchResponse<ForecastData> results = weatherBatchService.getForecast(request.getLocations(), days).block();
+            return ResponseEntity.ok(ApiResponse.success(results));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                    .body(ApiResponse.error("Error fetching forecast: " + e.getMessage()));
+        }
+    }
+
+    private String validateBatch(BatchRequest request) {
+        if (request.getLocations() == null || request.getLocations().isEmpty()) {
+            return "At least one location is required";
+        }
+
+        if (request.getLocations().size() > weatherBatchService.getMaxLocations()) {
+            return "At most " + weatherBatchService.getMaxLocations() + " locations per batch";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,89 @@
+package com.weatherapi.metrics;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import org.springframework.stereotype.Component;
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Total heap bytes allocated since startup, derived from young-generation usage:
+ * everything allocated lands in eden, so the growth of eden between collections
+ * (plus its growth since the last one) is what the application allocated.
+ * Unlike per-thread counters this also covers threads that have already exited.
+ *
+ * Micrometer's jvm.gc.memory.allocated counts the same eden growth but only moves
+ * when a collection happens; this also adds the growth since the last one, so a
+ * short load step that triggers few collections still reads correctly.
+ */
+@Component
+public class AllocationTracker implements NotificationListener, AutoCloseable {
+
+    private final MemoryPoolMXBean youngPool;
+    private final List<NotificationEmitter> emitters = new ArrayList<>();
+    private final AtomicLong allocatedBeforeLastGc = new AtomicLong();
+    private volatile long youngUsedAfterLastGc;
+
+    public AllocationTracker() {
+        this.youngPool = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getName().contains("Eden"))
+                .findFirst()
+                .orElse(null);
+
+        if (youngPool != null) {
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                if (collector instanceof NotificationEmitter emitter) {
+                    emitter.addNotificationListener(this, null, null);
+                    emitters.add(emitter);
+                }
+            }
+        }
+    }
+
+    // -1 when the collector has no separate young generation to measure
+    public long getAllocatedBytes() {
+        if (youngPool == null) {
+            return -1;
+        }
+        return allocatedBeforeLastGc.get() + Math.max(0, youngPool.getUsage().getUsed() - youngUsedAfterLastGc);
+    }
+
+    @Override
+    public void handleNotification(Notification notification, Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return;
+        }
+
+        var gcInfo = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData()).getGcInfo();
+        MemoryUsage before = gcInfo.getMemoryUsageBeforeGc().get(youngPool.getName());
+        MemoryUsage after = gcInfo.getMemoryUsageAfterGc().get(youngPool.getName());
+        if (before == null || after == null) {
+            return;
+        }
+
+        allocatedBeforeLastGc.addAndGet(Math.max(0, before.getUsed() - youngUsedAfterLastGc));
+        youngUsedAfterLastGc = after.getUsed();
+    }
+
+    // The collector MXBeans outlive the application context; leave no listener behind
+    @Override
+    public void close() {
+        for (NotificationEmitter emitter : emitters) {
+            try {
+                emitter.removeNotificationListener(this);
+            } catch (ListenerNotFoundException e) {
+                // Already removed
+            }
+        }
+        emitters.clear();
+    }
+}
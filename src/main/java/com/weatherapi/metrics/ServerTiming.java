@@ -0,0 +1,85 @@
+package com.weatherapi.metrics;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Where one request's time went, reported back in its Server-Timing header:
+ * cache lookups, waiting on upstream providers (wall time from the first call
+ * starting to the last one finishing, parsing included), parsing their
+ * responses and merging provider readings.
+ *
+ * The instance is bound to the request thread while the handler runs. Code that
+ * records from other threads (response parsing, aggregation) grabs it with
+ * current() while the request thread assembles the call, and records into it later.
+ */
+public final class ServerTiming {
+
+    public static final String ATTRIBUTE = ServerTiming.class.getName();
+    public static final String HEADER = "Server-Timing";
+
+    // Recording into this instance does nothing; returned outside a request
+    private static final ServerTiming NONE = new ServerTiming();
+    private static final ThreadLocal<ServerTiming> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private final LongAdder cacheNanos = new LongAdder();
+    private final LongAdder parseNanos = new LongAdder();
+    private final LongAdder aggregationNanos = new LongAdder();
+    private final AtomicLong upstreamStart = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong upstreamEnd = new AtomicLong(Long.MIN_VALUE);
+
+    public static ServerTiming current() {
+        ServerTiming timing = CURRENT.get();
+        return timing != null ? timing : NONE;
+    }
+
+    static void bind(ServerTiming timing) {
+        CURRENT.set(timing);
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+
+    public void addCache(long nanos) {
+        if (this != NONE) {
+            cacheNanos.add(nanos);
+        }
+    }
+
+    public void addParse(long nanos) {
+        if (this != NONE) {
+            parseNanos.add(nanos);
+        }
+    }
+
+    public void addAggregation(long nanos) {
+        if (this != NONE) {
+            aggregationNanos.add(nanos);
+        }
+    }
+
+    // Overlapping calls (providers queried in parallel) count once
+    public void addUpstream(long startNanos, long endNanos) {
+        if (this != NONE) {
+            upstreamStart.accumulateAndGet(startNanos, Math::min);
+            upstreamEnd.accumulateAndGet(endNanos, Math::max);
+        }
+    }
+
+    // e.g. "cache;dur=0.02, upstream;dur=84.71, parse;dur=0.31, aggregation;dur=0.04, total;dur=85.40"
+    String header() {
+        long upstream = upstreamStart.get() <= upstreamEnd.get() ? upstreamEnd.get() - upstreamStart.get() : 0;
+        return entry("cache", cacheNanos.sum()) + ", "
+                + entry("upstream", upstream) + ", "
+                + entry("parse", parseNanos.sum()) + ", "
+                + entry("aggregation", aggregationNanos.sum()) + ", "
+                + entry("total", System.nanoTime() - startNanos);
+    }
+
+    private static String entry(String name, long nanos) {
+        return String.format(Locale.ROOT, "%s;dur=%.2f", name, nanos / 1e6);
+    }
+}
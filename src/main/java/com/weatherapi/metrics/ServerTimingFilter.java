@@ -0,0 +1,39 @@
+package com.weatherapi.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+
+/**
+ * Starts a ServerTiming for each weather and location request. The header itself
+ * is written by ServerTimingAdvice just before the response body, which for
+ * reactive handlers happens on a later async dispatch.
+ */
+@Component
+@ConditionalOnProperty(name = "weather.server-timing.enabled", havingValue = "true", matchIfMissing = true)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !(path.startsWith("/weather") || path.startsWith("/locations"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ServerTiming timing = new ServerTiming();
+        request.setAttribute(ServerTiming.ATTRIBUTE, timing);
+        ServerTiming.bind(timing);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ServerTiming.unbind();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.weatherapi.model;
+
+import java.util.List;
+
+public class BatchRequest {
+    private List<String> locations;
+    private Integer days;
+
+    public List<String> getLocations() { return locations; }
+    public void setLocations(List<String> locations) { this.locations = locations; }
+    public Integer getDays() { return days; }
+    public void setDays(Integer days) { this.days = days; }
+}
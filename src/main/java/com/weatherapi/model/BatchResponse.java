@@ -0,0 +1,59 @@
+package com.weatherapi.model;
+
+import java.util.List;
+
+public class BatchResponse<T> {
+    private List<Item<T>> results;
+    private Integer count;
+    private Integer succeeded;
+    private Integer failed;
+
+    public BatchResponse(List<Item<T>> results) {
+        this.results = results;
+        this.count = results.size();
+        this.succeeded = (int) results.stream().filter(item -> "success".equals(item.getStatus())).count();
+        this.failed = count - succeeded;
+    }
+
+    // Outcome for a single location; a failed lookup does not fail the whole batch
+    public static class Item<T> {
+        private String location;
+        private String status;
+        private T data;
+        private String error;
+
+        public static <T> Item<T> success(String location, T data) {
+            Item<T> item = new Item<>();
+            item.setLocation(location);
+            item.setStatus("success");
+            item.setData(data);
+            return item;
+        }
+
+        public static <T> Item<T> error(String location, String error) {
+            Item<T> item = new Item<>();
+            item.setLocation(location);
+            item.setStatus("error");
+            item.setError(error);
+            return item;
+        }
+
+        public String getLocation() { return location; }
+        public void setLocation(String location) { this.location = location; }
+        public String getStatus() { return status; }
+        public void setStatus(String status) { this.status = status; }
+        public T getData() { return data; }
+        public void setData(T data) { this.data = data; }
+        public String getError() { return error; }
+        public void setError(String error) { this.error = error; }
+    }
+
+    public List<Item<T>> getResults() { return results; }
+    public void setResults(List<Item<T>> results) { this.results = results; }
+    public Integer getCount() { return count; }
+    public void setCount(Integer count) { this.count = count; }
+    public Integer getSucceeded() { return succeeded; }
+    public void setSucceeded(Integer succeeded) { this.succeeded = succeeded; }
+    public Integer getFailed() { return failed; }
+    public void setFailed(Integer failed) { this.failed = failed; }
+}
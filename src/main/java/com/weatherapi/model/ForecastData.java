@@ -1,5 +1,6 @@
 package com.weatherapi.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.util.List;
 
 public class ForecastData {
@@ -10,11 +11,17 @@ public class ForecastData {
     public static class Location {
         private String name;
         private String country;
+        private Double lat;
+        private Double lon;
 
         public String getName() { return name; }
         public void setName(String name) { this.name = name; }
         public String getCountry() { return country; }
         public void setCountry(String country) { this.country = country; }
+        public Double getLat() { return lat; }
+        public void setLat(Double lat) { this.lat = lat; }
+        public Double getLon() { return lon; }
+        public void setLon(Double lon) { this.lon = lon; }
     }
 
     public static class ForecastDay {
@@ -42,4 +49,8 @@ public class ForecastData {
     public void setForecast(List<ForecastDay> forecast) { this.forecast = forecast; }
     public List<String> getSources() { return sources; }
     public void setSources(List<String> sources) { this.sources = sources; }
+
+    // Placeholder data, never to be cached or replace a real entry
+    @JsonIgnore
+    public boolean isFallback() { return sources != null && sources.contains(WeatherData.FALLBACK_SOURCE); }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.weatherapi.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.util.List;
 
 public class LocationData {
@@ -32,4 +33,11 @@ public class LocationData {
     public void setLocations(List<Location> locations) { this.locations = locations; }
     public Integer getCount() { return count; }
     public void setCount(Integer count) { this.count = count; }
+
+    // Only the mock places served when every geocoder failed; never to be cached
+    @JsonIgnore
+    public boolean isFallback() {
+        return locations != null && !locations.isEmpty() && locations.stream()
+                .allMatch(location -> WeatherData.FALLBACK_SOURCE.equals(location.getSource()));
+    }
 }
\ No newline at end of file
@@ -1,8 +1,12 @@
 package com.weatherapi.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.util.List;
 
 public class WeatherData {
+    // Sole source of the placeholder served when no provider answered
+    public static final String FALLBACK_SOURCE = "Fallback";
+
     private Location location;
     private CurrentWeather current;
     private List<String> sources;
@@ -60,4 +64,8 @@ public class WeatherData {
     public void setSources(List<String> sources) { this.sources = sources; }
     public String getLastUpdated() { return lastUpdated; }
     public void setLastUpdated(String lastUpdated) { this.lastUpdated = lastUpdated; }
+
+    // Placeholder data, never to be cached or replace a real entry
+    @JsonIgnore
+    public boolean isFallback() { return sources != null && sources.contains(FALLBACK_SOURCE); }
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.weatherapi.provider;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * How readings from several providers are merged into one value.
+ * FIRST_N does not wait for every provider: it averages the first N readings to
+ * arrive and cancels the rest.
+ */
+public enum AggregationStrategy {
+
+    MEAN,
+    MEDIAN,
+    WEIGHTED,
+    FIRST_N;
+
+    // Accepts the property form, e.g. "first-n"
+    public static AggregationStrategy from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown weather.aggregation.strategy \"" + value
+                    + "\"; expected one of mean, median, weighted, first-n");
+        }
+    }
+
+    /**
+     * @param weights per-reading weights, only used by WEIGHTED
+     */
+    public double combine(double[] values, double[] weights) {
+        switch (this) {
+            case MEDIAN: {
+                double[] sorted = values.clone();
+                Arrays.sort(sorted);
+                int middle = sorted.length / 2;
+                return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+            }
+            case WEIGHTED: {
+                double sum = 0, totalWeight = 0;
+                for (int i = 0; i < values.length; i++) {
+                    sum += values[i] * weights[i];
+                    totalWeight += weights[i];
+                }
+                return sum / totalWeight;
+            }
+            default: {
+                double sum = 0;
+                for (double value : values) {
+                    sum += value;
+                }
+                return sum / values.length;
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.weatherapi.provider;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.weatherapi.cache.LocationKeyResolver;
+import com.weatherapi.client.StreamingJson;
+import com.weatherapi.model.WeatherData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+@Component
+@Order(1)
+@ConditionalOnProperty(name = "weather.providers.openweather.enabled", havingValue = "true", matchIfMissing = true)
+public class OpenWeatherProvider implements WeatherProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(OpenWeatherProvider.class);
+
+    private final WebClient webClient;
+
+    @Value("${weather.api.openweather.key}")
+    private String apiKey;
+
+    @Value("${weather.api.openweather.url}")
+    private String baseUrl;
+
+    public OpenWeatherProvider(@Qualifier("openWeatherWebClient") WebClient webClient) {
+        this.webClient = webClient;
+    }
+
+    @Override
+    public String getName() {
+        return "openweather";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "OpenWeatherMap";
+    }
+
+    @Override
+    public Mono<WeatherData> fetchCurrentWeather(String location) {
+        // OpenWeatherMap only accepts coordinates as separate lat/lon parameters
+        double[] coordinates = LocationKeyResolver.parseCoordinates(location);
+        WebClient.RequestHeadersSpec<?> request = coordinates != null
+                ? webClient.get()
+                        .uri(baseUrl + "/weather?lat={lat}&lon={lon}&appid={key}&units=metric",
+                                coordinates[0], coordinates[1], apiKey)
+                : webClient.get()
+                        .uri(baseUrl + "/weather?q={location}&appid={key}&units=metric",
+                                location, apiKey);
+
+        return StreamingJson.decode(request.retrieve().bodyToFlux(DataBuffer.class), this::parseResponse);
+    }
+
+    private WeatherData parseResponse(JsonParser parser) {
+        try {
+            WeatherData data = Readings.blank(getDisplayName());
+            WeatherData.Location location = data.getLocation();
+            WeatherData.CurrentWeather current = data.getCurrent();
+
+            StreamingJson.forEachField(parser, (field, p) -> {
+                switch (field) {
+                    case "name" -> location.setName(p.getValueAsString(""));
+                    case "sys" -> StreamingJson.forEachField(p, (f, v) -> {
+                        if (f.equals("country")) location.setCountry(v.getValueAsString(""));
+                    });
+                    case "coord" -> StreamingJson.forEachField(p, (f, v) -> {
+                        if (f.equals("lat")) location.setLat(v.getValueAsDouble());
+                        if (f.equals("lon")) location.setLon(v.getValueAsDouble());
+                    });
+                    case "main" -> StreamingJson.forEachField(p, (f, v) -> {
+                        switch (f) {
+                            case "temp" -> current.setTemperature(v.getValueAsDouble());
+                            case "feels_like" -> current.setFeelsLike(v.getValueAsDouble());
+                            case "humidity" -> current.setHumidity(v.getValueAsInt());
+                            case "pressure" -> current.setPressure(v.getValueAsInt());
+                            default -> { }
+                        }
+                    });
+                    case "wind" -> StreamingJson.forEachField(p, (f, v) -> {
+                        if (f.equals("speed")) current.setWindSpeed(v.getValueAsDouble());
+                    });
+                    // Only the first (primary) condition is used
+                    case "weather" -> StreamingJson.firstElement(p, element ->
+                            StreamingJson.forEachField(element, (f, v) -> {
+                                if (f.equals("main")) current.setCondition(v.getValueAsString(""));
+                                if (f.equals("description")) current.setDescription(v.getValueAsString(""));
+                            }));
+                    default -> { }
+                }
+            });
+
+            return data;
+
+        } catch (Exception e) {
+            log.warn("provider=openweather parse failed: {}", e.getMessage());
+            throw new RuntimeException("Failed to parse OpenWeather data");
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.weatherapi.provider;
+
+import com.weatherapi.model.WeatherData;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+final class Readings {
+
+    private Readings() {
+    }
+
+    // Fields missing from a response read as empty/zero, as they did with the tree model,
+    // except coordinates: (0, 0) is a real place, so missing ones stay null
+    static WeatherData blank(String source) {
+        WeatherData.Location location = new WeatherData.Location();
+        location.setName("");
+        location.setCountry("");
+
+        WeatherData.CurrentWeather current = new WeatherData.CurrentWeather();
+        current.setTemperature(0.0);
+        current.setFeelsLike(0.0);
+        current.setHumidity(0);
+        current.setPressure(0);
+        current.setWindSpeed(0.0);
+        current.setCondition("");
+        current.setDescription("");
+
+        WeatherData data = new WeatherData();
+        data.setLocation(location);
+        data.setCurrent(current);
+        data.setSources(Arrays.asList(source));
+        data.setLastUpdated(LocalDateTime.now().toString());
+        return data;
+    }
+}
@@ -0,0 +1,201 @@
+package com.weatherapi.provider;
+
+import com.weatherapi.client.UpstreamCalls;
+import com.weatherapi.client.UpstreamRejectedException;
+import com.weatherapi.metrics.ServerTiming;
+import com.weatherapi.model.WeatherData;
+import com.weatherapi.ratelimit.UpstreamRateLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Fans a current-weather lookup out to every enabled WeatherProvider at once and
+ * merges whatever comes back. Providers that fail or miss their deadline are left
+ * out; WeatherData.sources lists only the providers that contributed.
+ */
+@Component
+public class WeatherAggregator {
+
+    private static final Logger log = LoggerFactory.getLogger(WeatherAggregator.class);
+
+    // Weight of the latest outcome in a provider's reliability score
+    private static final double RELIABILITY_ALPHA = 0.1;
+    private static final double MIN_WEIGHT = 0.05;
+
+    private final List<WeatherProvider> providers;
+    private final UpstreamCalls upstreamCalls;
+    private final UpstreamRateLimiter upstreamLimits;
+    private final Map<String, Reliability> reliability = new LinkedHashMap<>();
+
+    private final AggregationStrategy strategy;
+
+    @Value("${weather.aggregation.first-n:1}")
+    private int firstN;
+
+    public WeatherAggregator(List<WeatherProvider> providers, UpstreamCalls upstreamCalls,
+                             UpstreamRateLimiter upstreamLimits,
+                             @Value("${weather.aggregation.strategy:mean}") String strategy) {
+        // Parsed once, so a misconfigured strategy fails startup instead of every request
+        this.strategy = AggregationStrategy.from(strategy);
+        this.providers = providers;
+        this.upstreamCalls = upstreamCalls;
+        this.upstreamLimits = upstreamLimits;
+        providers.forEach(provider -> reliability.put(provider.getName(), new Reliability()));
+    }
+
+    public Mono<WeatherData> aggregate(String location) {
+        List<Mono<Reading>> calls = providers.stream().map(provider -> fetch(provider, location)).toList();
+
+        // FIRST_N keeps completion order and stops early; the others keep provider order
+        Flux<Reading> readings = strategy == AggregationStrategy.FIRST_N
+                ? Flux.merge(calls).take(firstN)
+                : Flux.mergeSequential(calls);
+
+        ServerTiming timing = ServerTiming.current();
+        return readings.collectList().map(results -> {
+            long start = System.nanoTime();
+            try {
+                return combine(location, strategy, results);
+            } finally {
+                timing.addAggregation(System.nanoTime() - start);
+            }
+        });
+    }
+
+    public List<WeatherProvider> getProviders() {
+        return providers;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> scores = new LinkedHashMap<>();
+        reliability.forEach((name, score) -> scores.put(name, Math.round(score.get() * 1000) / 1000.0));
+        return Map.of(
+                "strategy", strategy.name(),
+                "reliability", scores);
+    }
+
+    private Mono<Reading> fetch(WeatherProvider provider, String location) {
+        Reliability score = reliability.get(provider.getName());
+        return upstreamCalls.call(provider.getName(), "current",
+                        () -> upstreamLimits.guard(provider.getName(), provider.fetchCurrentWeather(location)))
+                .map(data -> new Reading(data, score.get()))
+                .doOnNext(reading -> score.record(true))
+                .doOnError(e -> {
+                    if (!(e instanceof UpstreamRejectedException)) {
+                        score.record(false);
+                    }
+                })
+                .onErrorResume(ex -> {
+                    log.warn("provider={} location={} error=\"{}\"", provider.getName(), location, ex.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private WeatherData combine(String location, AggregationStrategy strategy, List<Reading> readings) {
+        if (readings.isEmpty()) {
+            return createFallbackWeatherData(location);
+        }
+        if (readings.size() == 1) {
+            return readings.get(0).data();
+        }
+
+        WeatherData aggregated = new WeatherData();
+
+        // Use location from the first source that resolved the place (missing coordinates stay null)
+        aggregated.setLocation(readings.stream()
+                .map(reading -> reading.data().getLocation())
+                .filter(candidate -> candidate.getLat() != null && candidate.getLon() != null)
+                .findFirst()
+                .orElse(readings.get(0).data().getLocation()));
+
+        WeatherData.CurrentWeather current = new WeatherData.CurrentWeather();
+        current.setTemperature(combineField(strategy, readings, WeatherData.CurrentWeather::getTemperature));
+        current.setFeelsLike(combineField(strategy, readings, WeatherData.CurrentWeather::getFeelsLike));
+        current.setHumidity(toInteger(combineField(strategy, readings, WeatherData.CurrentWeather::getHumidity)));
+        current.setPressure(toInteger(combineField(strategy, readings, WeatherData.CurrentWeather::getPressure)));
+        current.setWindSpeed(combineField(strategy, readings, WeatherData.CurrentWeather::getWindSpeed));
+        current.setCondition("Aggregated");
+        current.setDescription("Real-time data from multiple sources");
+
+        List<String> sources = new ArrayList<>();
+        readings.forEach(reading -> sources.addAll(reading.data().getSources()));
+
+        aggregated.setCurrent(current);
+        aggregated.setSources(sources);
+        aggregated.setLastUpdated(LocalDateTime.now().toString());
+
+        return aggregated;
+    }
+
+    // Readings without the field are left out of it instead of counting as zero; null when none has it
+    private Double combineField(AggregationStrategy strategy, List<Reading> readings,
+                                Function<WeatherData.CurrentWeather, ? extends Number> field) {
+        double[] values = new double[readings.size()];
+        double[] weights = new double[readings.size()];
+        int count = 0;
+        for (Reading reading : readings) {
+            WeatherData.CurrentWeather current = reading.data().getCurrent();
+            Number value = current != null ? field.apply(current) : null;
+            if (value != null) {
+                values[count] = value.doubleValue();
+                weights[count] = Math.max(MIN_WEIGHT, reading.reliability());
+                count++;
+            }
+        }
+        return count > 0 ? strategy.combine(Arrays.copyOf(values, count), Arrays.copyOf(weights, count)) : null;
+    }
+
+    private static Integer toInteger(Double value) {
+        return value != null ? value.intValue() : null;
+    }
+
+    private WeatherData createFallbackWeatherData(String location) {
+        WeatherData data = new WeatherData();
+        WeatherData.Location loc = new WeatherData.Location();
+        loc.setName(location);
+        loc.setCountry("N/A");
+
+        WeatherData.CurrentWeather current = new WeatherData.CurrentWeather();
+        current.setTemperature(20.0);
+        current.setFeelsLike(18.0);
+        current.setHumidity(65);
+        current.setPressure(1013);
+        current.setWindSpeed(3.5);
+        current.setCondition("Data Unavailable");
+        current.setDescription("Fallback data - API temporarily unavailable");
+
+        data.setLocation(loc);
+        data.setCurrent(current);
+        data.setSources(Arrays.asList(WeatherData.FALLBACK_SOURCE));
+        data.setLastUpdated(LocalDateTime.now().toString());
+
+        return data;
+    }
+
+    private record Reading(WeatherData data, double reliability) {
+    }
+
+    // Exponentially weighted share of recent calls that returned a reading
+    private static final class Reliability {
+        private double score = 1.0;
+
+        synchronized void record(boolean success) {
+            score = score * (1 - RELIABILITY_ALPHA) + (success ? RELIABILITY_ALPHA : 0);
+        }
+
+        synchronized double get() {
+            return score;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.weatherapi.provider;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.weatherapi.client.StreamingJson;
+import com.weatherapi.model.WeatherData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Component
+@Order(2)
+@ConditionalOnProperty(name = "weather.providers.weatherapi.enabled", havingValue = "true", matchIfMissing = true)
+public class WeatherApiProvider implements WeatherProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(WeatherApiProvider.class);
+
+    private final WebClient webClient;
+
+    @Value("${weather.api.weatherapi.key}")
+    private String apiKey;
+
+    @Value("${weather.api.weatherapi.url}")
+    private String baseUrl;
+
+    public WeatherApiProvider(@Qualifier("weatherApiWebClient") WebClient webClient) {
+        this.webClient = webClient;
+    }
+
+    @Override
+    public String getName() {
+        return "weatherapi";
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "WeatherAPI";
+    }
+
+    @Override
+    public Mono<WeatherData> fetchCurrentWeather(String location) {
+        Flux<DataBuffer> body = webClient.get()
+                .uri(baseUrl + "/current.json?key={key}&q={location}&aqi=no",
+                        apiKey, location)
+                .retrieve()
+                .bodyToFlux(DataBuffer.class);
+
+        return StreamingJson.decode(body, this::parseResponse);
+    }
+
+    private WeatherData parseResponse(JsonParser parser) {
+        try {
+            WeatherData data = Readings.blank(getDisplayName());
+            WeatherData.Location loc = data.getLocation();
+            WeatherData.CurrentWeather currentWeather = data.getCurrent();
+
+            StreamingJson.forEachField(parser, (field, p) -> {
+                switch (field) {
+                    case "location" -> StreamingJson.forEachField(p, (f, v) -> {
+                        switch (f) {
+                            case "name" -> loc.setName(v.getValueAsString(""));
+                            case "country" -> loc.setCountry(v.getValueAsString(""));
+                            case "lat" -> loc.setLat(v.getValueAsDouble());
+                            case "lon" -> loc.setLon(v.getValueAsDouble());
+                            default -> { }
+                        }
+                    });
+                    case "current" -> StreamingJson.forEachField(p, (f, v) -> {
+                        switch (f) {
+                            case "temp_c" -> currentWeather.setTemperature(v.getValueAsDouble());
+                            case "feelslike_c" -> currentWeather.setFeelsLike(v.getValueAsDouble());
+                            case "humidity" -> currentWeather.setHumidity(v.getValueAsInt());
+                            case "pressure_mb" -> currentWeather.setPressure(v.getValueAsInt());
+                            case "wind_kph" -> currentWeather.setWindSpeed(v.getValueAsDouble() / 3.6); // Convert to m/s
+                            case "condition" -> StreamingJson.forEachField(v, (cf, cv) -> {
+                                if (cf.equals("text")) {
+                                    currentWeather.setCondition(cv.getValueAsString(""));
+                                    currentWeather.setDescription(cv.getValueAsString(""));
+                                }
+                            });
+                            default -> { }
+                        }
+                    });
+                    default -> { }
+                }
+            });
+
+            return data;
+
+        } catch (Exception e) {
+            log.warn("provider=weatherapi parse failed: {}", e.getMessage());
+            throw new RuntimeException("Failed to parse WeatherAPI data");
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.weatherapi.provider;
+
+import com.weatherapi.model.WeatherData;
+import reactor.core.publisher.Mono;
+
+/**
+ * A source of current weather readings. Every enabled provider bean is queried in
+ * parallel by the WeatherAggregator, which also applies deadlines, quotas and
+ * circuit breaking; implementations only make the request and map the response.
+ */
+public interface WeatherProvider {
+
+    // Stable id used for configuration keys, quotas and /health, e.g. "openweather"
+    String getName();
+
+    // Name reported in WeatherData.sources
+    String getDisplayName();
+
+    Mono<WeatherData> fetchCurrentWeather(String location);
+}
@@ -0,0 +1,68 @@
+package com.weatherapi.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One token bucket per key (client, provider, ...). Buckets live in a bounded
+ * Caffeine map and are dropped after being idle for a while; by then they would
+ * have refilled anyway, so idle expiry never grants more than the configured rate.
+ *
+ * The size bound is different: with more than maxKeys keys active at once, a bucket
+ * still in use can be evicted and its key starts over with a full burst. maxKeys
+ * must therefore exceed the number of concurrently active keys; it only caps memory
+ * against key churn (e.g. spoofed API keys).
+ */
+public class KeyedRateLimiter {
+
+    private final long capacity;
+    private final long intervalNanos;
+    private final Cache<String, TokenBucket> buckets;
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param capacity permits available in a burst
+     * @param refillPeriod time to refill the full capacity
+     */
+    public KeyedRateLimiter(long capacity, Duration refillPeriod, long maxKeys, Duration idleTimeout) {
+        this.capacity = capacity;
+        this.intervalNanos = Math.max(1, refillPeriod.toNanos() / capacity);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idleTimeout)
+                .build();
+    }
+
+    public RateLimitDecision tryAcquire(String key) {
+        RateLimitDecision decision = bucket(key).tryAcquire(System.nanoTime());
+        (decision.allowed() ? allowed : rejected).increment();
+        return decision;
+    }
+
+    public long remaining(String key) {
+        return bucket(key).remaining(System.nanoTime());
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public long getAllowedCount() {
+        return allowed.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getTrackedKeys() {
+        return buckets.estimatedSize();
+    }
+
+    private TokenBucket bucket(String key) {
+        return buckets.get(key, k -> new TokenBucket(capacity, intervalNanos));
+    }
+}
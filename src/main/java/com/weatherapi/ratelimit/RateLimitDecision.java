@@ -0,0 +1,13 @@
+package com.weatherapi.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * Outcome of one permit request.
+ *
+ * @param allowed    whether the permit was granted
+ * @param remaining  permits left after this request
+ * @param retryAfter time until the next permit is available, zero when allowed
+ */
+public record RateLimitDecision(boolean allowed, long remaining, Duration retryAfter) {
+}
@@ -0,0 +1,68 @@
+package com.weatherapi.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.weatherapi.model.ApiResponse;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Applies the per-client limit before any weather or location handler runs.
+ * Clients are identified by their X-API-Key header, or by remote address when
+ * no key is sent, and get a separate bucket per endpoint group
+ * (/weather, /locations).
+ */
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private final KeyedRateLimiter clientLimiter;
+    private final ObjectMapper objectMapper;
+    private final String limitMessage;
+
+    public RateLimitInterceptor(KeyedRateLimiter clientLimiter, ObjectMapper objectMapper, String limitMessage) {
+        this.clientLimiter = clientLimiter;
+        this.objectMapper = objectMapper;
+        this.limitMessage = limitMessage;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws Exception {
+        // Reactive and streamed handlers are dispatched a second time to write the result
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+
+        String key = clientKey(request) + "|" + endpointGroup(request);
+        RateLimitDecision decision = clientLimiter.tryAcquire(key);
+
+        response.setHeader("X-RateLimit-Limit", String.valueOf(clientLimiter.getCapacity()));
+        response.setHeader("X-RateLimit-Remaining", String.valueOf(decision.remaining()));
+
+        if (decision.allowed()) {
+            return true;
+        }
+
+        long retryAfterSeconds = Math.max(1, (long) Math.ceil(decision.retryAfter().toMillis() / 1000.0));
+        response.setStatus(429);
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ApiResponse.error(limitMessage));
+        return false;
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        String apiKey = request.getHeader("X-API-Key");
+        if (apiKey != null && !apiKey.isBlank()) {
+            return "key:" + apiKey;
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private String endpointGroup(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        int end = path.indexOf('/', 1);
+        return end > 0 ? path.substring(0, end) : path;
+    }
+}
@@ -0,0 +1,56 @@
+package com.weatherapi.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket. The whole state is a single "theoretical arrival time"
+ * (the GCRA formulation of a token bucket): each permit pushes it forward by one
+ * refill interval, and a permit is refused when that would put it more than
+ * {@code capacity} intervals ahead of now. One CAS per acquire, no locks.
+ */
+public final class TokenBucket {
+
+    private final long capacity;
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * @param capacity maximum burst size
+     * @param intervalNanos time to refill one token
+     */
+    public TokenBucket(long capacity, long intervalNanos) {
+        this.capacity = capacity;
+        this.intervalNanos = intervalNanos;
+        this.burstNanos = capacity * intervalNanos;
+    }
+
+    // Remaining permits and retry-after are derived from the same state the decision was made on
+    public RateLimitDecision tryAcquire(long nowNanos) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long base = Math.max(current, nowNanos);
+            long next = base + intervalNanos;
+            if (next - nowNanos > burstNanos) {
+                return new RateLimitDecision(false, remaining(base, nowNanos),
+                        Duration.ofNanos(next - nowNanos - burstNanos));
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return new RateLimitDecision(true, remaining(next, nowNanos), Duration.ZERO);
+            }
+        }
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public long remaining(long nowNanos) {
+        return remaining(Math.max(theoreticalArrival.get(), nowNanos), nowNanos);
+    }
+
+    private long remaining(long arrival, long nowNanos) {
+        return Math.max(0, (burstNanos - (arrival - nowNanos)) / intervalNanos);
+    }
+}
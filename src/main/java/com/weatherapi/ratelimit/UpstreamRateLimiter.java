@@ -0,0 +1,60 @@
+package com.weatherapi.ratelimit;
+
+import com.weatherapi.client.UpstreamRejectedException;
+import reactor.core.publisher.Mono;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Outbound quota per upstream provider, so our own traffic can never exceed what
+ * a provider allows. A call over quota fails immediately without reaching the
+ * provider and takes the caller's normal fallback path.
+ */
+public class UpstreamRateLimiter {
+
+    private final Function<String, KeyedRateLimiter> limiterFactory;
+    private final Map<String, Optional<KeyedRateLimiter>> providers = new ConcurrentHashMap<>();
+
+    /**
+     * @param limiterFactory creates the quota for a provider on first use, or returns
+     *                       null when that provider has no configured quota
+     */
+    public UpstreamRateLimiter(Function<String, KeyedRateLimiter> limiterFactory) {
+        this.limiterFactory = limiterFactory;
+    }
+
+    // Defers the upstream call until a permit has been granted for the provider
+    public <T> Mono<T> guard(String provider, Mono<T> request) {
+        return Mono.defer(() -> {
+            KeyedRateLimiter limiter = limiter(provider);
+            if (limiter != null && !limiter.tryAcquire(provider).allowed()) {
+                return Mono.error(new UpstreamRejectedException(provider + " request quota exhausted"));
+            }
+            return request;
+        });
+    }
+
+    // Permits the provider could grant right now; Long.MAX_VALUE when it has no quota
+    public long available(String provider) {
+        KeyedRateLimiter limiter = limiter(provider);
+        return limiter != null ? limiter.remaining(provider) : Long.MAX_VALUE;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new TreeMap<>();
+        providers.forEach((name, quota) -> quota.ifPresent(limiter -> stats.put(name, Map.of(
+                "allowed", limiter.getAllowedCount(),
+                "rejected", limiter.getRejectedCount(),
+                "available", limiter.remaining(name)))));
+        return stats;
+    }
+
+    private KeyedRateLimiter limiter(String provider) {
+        return providers
+                .computeIfAbsent(provider, name -> Optional.ofNullable(limiterFactory.apply(name)))
+                .orElse(null);
+    }
+}
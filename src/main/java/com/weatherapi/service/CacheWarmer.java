@@ -0,0 +1,256 @@
+package com.weatherapi.service;
+
+import com.weatherapi.cache.CachedForecast;
+import com.weatherapi.cache.LocationKeyResolver;
+import com.weatherapi.cache.TieredCaffeineCache;
+import com.weatherapi.provider.WeatherAggregator;
+import com.weatherapi.provider.WeatherProvider;
+import com.weatherapi.ratelimit.UpstreamRateLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fetches the most requested locations ahead of demand: once the application is
+ * ready and then every interval-seconds. Each run takes the top-n keys from
+ * LocationPopularity and loads those whose weather (or widest requested forecast)
+ * is missing from the in-memory cache or past its refresh age, through the normal
+ * cached service methods, so L2 promotion, refresh-ahead and coalescing all apply.
+ *
+ * A run spends at most max-upstream-calls per provider, and no more than quota-share
+ * of the permits each provider has left at the start of the run, so warming never
+ * takes the quota live requests need. Keys that do not fit are left for the next run.
+ */
+@Component
+public class CacheWarmer implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheWarmer.class);
+
+    private final LocationPopularity popularity;
+    private final WeatherService weatherService;
+    private final LocationKeyResolver locationKeys;
+    private final CacheManager cacheManager;
+    private final UpstreamRateLimiter upstreamLimits;
+    private final WeatherAggregator weatherAggregator;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong runs = new AtomicLong();
+    private volatile Run lastRun;
+    private volatile Disposable schedule;
+
+    @Value("${weather.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${weather.warmup.top-n:50}")
+    private int topN;
+
+    @Value("${weather.warmup.interval-seconds:120}")
+    private long intervalSeconds;
+
+    @Value("${weather.warmup.max-upstream-calls:30}")
+    private int maxUpstreamCalls;
+
+    @Value("${weather.warmup.quota-share:0.5}")
+    private double quotaShare;
+
+    @Value("${weather.warmup.concurrency:4}")
+    private int concurrency;
+
+    public CacheWarmer(LocationPopularity popularity, WeatherService weatherService,
+                       LocationKeyResolver locationKeys, CacheManager cacheManager,
+                       UpstreamRateLimiter upstreamLimits, WeatherAggregator weatherAggregator) {
+        this.popularity = popularity;
+        this.weatherService = weatherService;
+        this.locationKeys = locationKeys;
+        this.cacheManager = cacheManager;
+        this.upstreamLimits = upstreamLimits;
+        this.weatherAggregator = weatherAggregator;
+    }
+
+    // First run at startup, then one per interval; a run still in progress skips the tick
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || schedule != null) {
+            return;
+        }
+        schedule = Flux.interval(Duration.ZERO, Duration.ofSeconds(intervalSeconds), Schedulers.boundedElastic())
+                .onBackpressureDrop()
+                .concatMap(tick -> warm()
+                        .onErrorResume(e -> {
+                            log.warn("warmup run failed: {}", e.getMessage());
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    public Mono<Void> warm() {
+        return Mono.defer(() -> {
+            if (!running.compareAndSet(false, true)) {
+                return Mono.empty();
+            }
+
+            Run run = plan();
+            lastRun = run;
+            runs.incrementAndGet();
+            return Flux.fromIterable(run.targets)
+                    .flatMap(target -> warm(target, run), Math.max(1, concurrency))
+                    .then()
+                    .doFinally(signal -> {
+                        run.finishedAt = LocalDateTime.now().toString();
+                        running.set(false);
+                        if (!run.targets.isEmpty()) {
+                            log.info("warmup done candidates={} planned={} fresh={} deferred={} warmed={} failed={}",
+                                    run.candidates, run.targets.size(), run.fresh, run.deferred,
+                                    run.warmed.get(), run.failed.get());
+                        }
+                    });
+        });
+    }
+
+    public Map<String, Object> getStats() {
+        Run run = lastRun;
+        return Map.of(
+                "state", !enabled ? "disabled" : running.get() ? "running" : "idle",
+                "runs", runs.get(),
+                "lastRun", run != null ? run.toMap() : "never",
+                "popularity", popularity.getStats());
+    }
+
+    @Override
+    public void close() {
+        if (schedule != null) {
+            schedule.dispose();
+        }
+    }
+
+    // Picks the keys that need loading, most popular first, until the run's budget is spent
+    private Run plan() {
+        List<LocationPopularity.Hotspot> hotspots = popularity.top(topN);
+        int budget = budget();
+        List<Target> targets = new ArrayList<>();
+        int fresh = 0;
+        int deferred = 0;
+        int spent = 0;
+
+        for (LocationPopularity.Hotspot hotspot : hotspots) {
+            String key = locationKeys.resolve(hotspot.query());
+            boolean weather = needsWeather(key);
+            boolean forecast = hotspot.forecastDays() > 0 && needsForecast(key, hotspot.forecastDays());
+
+            // Worst case per provider: one current-weather call and one forecast call
+            int cost = (weather ? 1 : 0) + (forecast ? 1 : 0);
+            if (cost == 0) {
+                fresh++;
+            } else if (spent + cost > budget) {
+                deferred++;
+            } else {
+                spent += cost;
+                targets.add(new Target(hotspot.query(), weather, forecast ? hotspot.forecastDays() : 0));
+            }
+        }
+        return new Run(hotspots.size(), targets, fresh, deferred, budget);
+    }
+
+    private Mono<Void> warm(Target target, Run run) {
+        Mono<?> weather = target.weather ? weatherService.getCurrentWeatherReactive(target.query) : Mono.empty();
+        Mono<?> forecast = target.forecastDays > 0
+                ? weatherService.getForecastEntryReactive(target.query, target.forecastDays)
+                : Mono.empty();
+
+        return Mono.when(weather, forecast)
+                .doOnSuccess(done -> run.warmed.incrementAndGet())
+                .onErrorResume(e -> {
+                    run.failed.incrementAndGet();
+                    log.warn("warmup location={} failed: {}", target.query, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    // Upstream calls per provider this run may spend
+    private int budget() {
+        long budget = maxUpstreamCalls;
+        for (WeatherProvider provider : weatherAggregator.getProviders()) {
+            long available = upstreamLimits.available(provider.getName());
+            if (available != Long.MAX_VALUE) {
+                budget = Math.min(budget, (long) (available * quotaShare));
+            }
+        }
+        return (int) Math.max(0, budget);
+    }
+
+    private boolean needsWeather(String key) {
+        TieredCaffeineCache.Freshness freshness = freshness("weather", key);
+        return freshness == null || freshness.fresh().isZero();
+    }
+
+    private boolean needsForecast(String key, int days) {
+        TieredCaffeineCache cache = cache("forecast");
+        if (cache == null || !(cache.peek(key) instanceof CachedForecast forecast) || !forecast.covers(days)) {
+            return true;
+        }
+        TieredCaffeineCache.Freshness freshness = cache.freshness(key);
+        return freshness == null || freshness.fresh().isZero();
+    }
+
+    private TieredCaffeineCache.Freshness freshness(String cacheName, String key) {
+        TieredCaffeineCache cache = cache(cacheName);
+        return cache != null ? cache.freshness(key) : null;
+    }
+
+    private TieredCaffeineCache cache(String name) {
+        return cacheManager.getCache(name) instanceof TieredCaffeineCache cache ? cache : null;
+    }
+
+    private record Target(String query, boolean weather, int forecastDays) {
+    }
+
+    private static final class Run {
+        final String startedAt = LocalDateTime.now().toString();
+        final int candidates;
+        final List<Target> targets;
+        final int fresh;
+        final int deferred;
+        final int budget;
+        final AtomicInteger warmed = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+        volatile String finishedAt;
+
+        Run(int candidates, List<Target> targets, int fresh, int deferred, int budget) {
+            this.candidates = candidates;
+            this.targets = targets;
+            this.fresh = fresh;
+            this.deferred = deferred;
+            this.budget = budget;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("startedAt", startedAt);
+            stats.put("finishedAt", finishedAt != null ? finishedAt : "in progress");
+            stats.put("candidates", candidates);
+            stats.put("planned", targets.size());
+            stats.put("warmed", warmed.get());
+            stats.put("failed", failed.get());
+            stats.put("alreadyFresh", fresh);
+            stats.put("deferred", deferred);
+            stats.put("budgetPerProvider", budget);
+            return stats;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.weatherapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.weatherapi.cache.Geohash;
+import com.weatherapi.cache.LocationKeyResolver;
+import com.weatherapi.model.LocationData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local autocomplete index of known places, answering prefix queries without a
+ * geocoding round trip. Entries are kept sorted by normalized "name,country", so
+ * every place starting with a prefix sits in one contiguous range of the map.
+ *
+ * Filled from every real geocoding result and, optionally, a gazetteer file read
+ * at startup: either GeoNames tab-separated dumps (e.g. cities15000.txt) or plain
+ * "name,country,lat,lon" lines.
+ *
+ * Without a gazetteer the index only knows the places earlier searches returned, so
+ * a prefix is answered locally only once that exact query has been geocoded: after
+ * a search for "Paris, US" the index knows one Paris, which is no answer to "Paris".
+ *
+ * Both are bounded: at most max-places places are learned from geocoding on top of
+ * the gazetteer, after which a query whose results cannot all be indexed is not
+ * remembered, and at most max-queries resolved queries are kept; an evicted query
+ * simply goes back to geocoding.
+ */
+@Component
+public class LocationIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(LocationIndex.class);
+
+    private final LocationKeyResolver locationKeys;
+    private final int maxResults;
+    private final int maxPlaces;
+    private final ConcurrentSkipListMap<String, LocationData.Location> places = new ConcurrentSkipListMap<>();
+    // Normalized queries geocoding has answered; the index holds every result for them
+    private final Cache<String, Boolean> resolvedQueries;
+    private final boolean gazetteerLoaded;
+    private final AtomicInteger size = new AtomicInteger();
+    // Places added from geocoding results, counted against maxPlaces
+    private final AtomicInteger learned = new AtomicInteger();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public LocationIndex(LocationKeyResolver locationKeys,
+                         @Value("${locations.index.max-results:10}") int maxResults,
+                         @Value("${locations.index.max-places:50000}") int maxPlaces,
+                         @Value("${locations.index.max-queries:10000}") long maxQueries,
+                         @Value("${locations.index.gazetteer:}") String gazetteer) {
+        this.locationKeys = locationKeys;
+        this.maxResults = maxResults;
+        this.maxPlaces = maxPlaces;
+        this.resolvedQueries = Caffeine.newBuilder().maximumSize(maxQueries).build();
+
+        this.gazetteerLoaded = !gazetteer.isBlank() && loadGazetteer(Path.of(gazetteer)) > 0;
+    }
+
+    // Places whose "name,country" starts with the query, in name order, if the index is known
+    // to hold all of them (a gazetteer is loaded or the query was geocoded before); empty otherwise
+    public List<LocationData.Location> search(String query) {
+        String prefix = locationKeys.normalize(query);
+        List<LocationData.Location> matches = gazetteerLoaded || resolvedQueries.getIfPresent(prefix) != null
+                ? matches(prefix)
+                : List.of();
+
+        (matches.isEmpty() ? misses : hits).incrementAndGet();
+        return matches;
+    }
+
+    /**
+     * Records what geocoding returned for the query and returns those places followed
+     * by other indexed places starting with the query that geocoding did not list.
+     * Only a query with real results, all of them indexed, is remembered as resolved.
+     */
+    public List<LocationData.Location> addResults(String query, List<LocationData.Location> results) {
+        List<LocationData.Location> merged = new ArrayList<>(results);
+        Set<String> listed = new HashSet<>();
+        boolean allIndexed = true;
+        for (LocationData.Location location : results) {
+            allIndexed &= add(location, true);
+            listed.add(key(location));
+        }
+
+        String prefix = locationKeys.normalize(query);
+        if (!results.isEmpty() && allIndexed && !prefix.isEmpty()) {
+            resolvedQueries.put(prefix, Boolean.TRUE);
+        }
+        for (LocationData.Location place : matches(prefix)) {
+            if (merged.size() >= Math.max(maxResults, results.size())) {
+                break;
+            }
+            if (listed.add(key(place))) {
+                merged.add(place);
+            }
+        }
+        return merged;
+    }
+
+    // Whether the place is in the index afterwards; learned places beyond maxPlaces are not
+    private boolean add(LocationData.Location location, boolean fromGeocoding) {
+        String key = key(location);
+        if (key == null) {
+            return false;
+        }
+        if (places.containsKey(key)) {
+            return true;
+        }
+        if (fromGeocoding && learned.incrementAndGet() > maxPlaces) {
+            learned.decrementAndGet();
+            return false;
+        }
+
+        if (places.putIfAbsent(key, location) == null) {
+            size.incrementAndGet();
+        } else if (fromGeocoding) {
+            learned.decrementAndGet();
+        }
+        return true;
+    }
+
+    public int getSize() {
+        return size.get();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public boolean isGazetteerLoaded() {
+        return gazetteerLoaded;
+    }
+
+    public long getResolvedQueryCount() {
+        // Evictions run asynchronously; settle them so the count reflects the bound
+        resolvedQueries.cleanUp();
+        return resolvedQueries.estimatedSize();
+    }
+
+    private List<LocationData.Location> matches(String prefix) {
+        List<LocationData.Location> matches = new ArrayList<>();
+        if (!prefix.isEmpty()) {
+            for (LocationData.Location place : places.subMap(prefix, prefix + Character.MAX_VALUE).values()) {
+                matches.add(place);
+                if (matches.size() >= maxResults) {
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+
+    // Same name and country but a different cell is a different place (Springfield, US)
+    private String key(LocationData.Location location) {
+        String name = location.getName();
+        Double lat = location.getLat();
+        Double lon = location.getLon();
+        if (name == null || name.isBlank() || lat == null || lon == null) {
+            return null;
+        }
+
+        String country = location.getCountry() != null ? location.getCountry() : "";
+        return locationKeys.normalize(name + "," + country) + "|" + Geohash.encode(lat, lon, 4);
+    }
+
+    // Returns the number of places added
+    private int loadGazetteer(Path path) {
+        int before = size.get();
+
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                LocationData.Location place = parseGazetteerLine(line);
+                if (place != null) {
+                    add(place, false);
+                }
+            }
+            log.info("gazetteer={} places={}", path, size.get() - before);
+        } catch (IOException e) {
+            log.warn("gazetteer={} could not be loaded: {}", path, e.getMessage());
+        }
+        return size.get() - before;
+    }
+
+    private LocationData.Location parseGazetteerLine(String line) {
+        if (line.isBlank() || line.startsWith("#")) {
+            return null;
+        }
+
+        // GeoNames columns: id, name, asciiname, alternatenames, lat, lon, class, code, country, ...
+        String[] fields = line.split("\t");
+        String name, country, lat, lon;
+        if (fields.length >= 9) {
+            name = fields[1];
+            lat = fields[4];
+            lon = fields[5];
+            country = fields[8];
+        } else {
+            fields = line.split(",");
+            if (fields.length != 4) {
+                return null;
+            }
+            name = fields[0];
+            country = fields[1];
+            lat = fields[2];
+            lon = fields[3];
+        }
+
+        try {
+            LocationData.Location place = new LocationData.Location();
+            place.setName(name.trim());
+            place.setCountry(country.trim());
+            place.setLat(Double.parseDouble(lat.trim()));
+            place.setLon(Double.parseDouble(lon.trim()));
+            place.setSource("Gazetteer");
+            return place;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.weatherapi.service;
+
+import com.weatherapi.cache.FrequencySketch;
+import com.weatherapi.cache.LocationKeyResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Which locations are requested most. Every weather or forecast request counts
+ * towards its cache key in a FrequencySketch; the most frequent keys are kept as
+ * candidates together with the query that last asked for them (the one to send
+ * upstream when warming the key) and the widest forecast requested.
+ *
+ * The candidates and their estimates are written to a file every persist-seconds
+ * and on shutdown, and read back at startup, so a restarted instance knows its
+ * hot set before the first request arrives.
+ */
+@Component
+public class LocationPopularity implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(LocationPopularity.class);
+    private static final Pattern CONTROL = Pattern.compile("[\\t\\r\\n]+");
+
+    private final LocationKeyResolver locationKeys;
+    private final boolean enabled;
+    private final int trackedKeys;
+    private final Path path;
+    private final FrequencySketch sketch;
+    private final Map<String, Candidate> candidates = new ConcurrentHashMap<>();
+    private final AtomicBoolean pruning = new AtomicBoolean();
+    private final LongAdder recorded = new LongAdder();
+    private final Disposable persistence;
+    private volatile String persistedAt;
+
+    public LocationPopularity(LocationKeyResolver locationKeys,
+                              @Value("${weather.popularity.enabled:true}") boolean enabled,
+                              @Value("${weather.popularity.tracked-keys:1000}") int trackedKeys,
+                              @Value("${weather.popularity.path:cache-data/popularity.tsv}") String path,
+                              @Value("${weather.popularity.persist-seconds:60}") long persistSeconds) {
+        this.locationKeys = locationKeys;
+        this.enabled = enabled;
+        this.trackedKeys = Math.max(1, trackedKeys);
+        this.path = path.isBlank() ? null : Path.of(path);
+        this.sketch = new FrequencySketch(this.trackedKeys);
+
+        if (enabled && this.path != null) {
+            load();
+            this.persistence = Flux.interval(Duration.ofSeconds(persistSeconds), Schedulers.boundedElastic())
+                    .subscribe(tick -> persist());
+        } else {
+            this.persistence = null;
+        }
+    }
+
+    // Counts one request for the location; forecastDays is 0 for current weather
+    public void record(String location, int forecastDays) {
+        if (!enabled || location == null || location.isBlank()) {
+            return;
+        }
+
+        String key = locationKeys.resolve(location);
+        String query = CONTROL.matcher(location.trim()).replaceAll(" ");
+        sketch.increment(key);
+        recorded.increment();
+        candidates.compute(key, (k, existing) -> existing == null
+                ? new Candidate(query, forecastDays)
+                : new Candidate(query, Math.max(existing.forecastDays, forecastDays)));
+
+        // Sorting the candidates is left to a background thread, not the request's
+        if (candidates.size() > trackedKeys + trackedKeys / 4 && pruning.compareAndSet(false, true)) {
+            Schedulers.boundedElastic().schedule(this::prune);
+        }
+    }
+
+    // The n most frequent keys, most frequent first
+    public List<Hotspot> top(int n) {
+        return candidates.entrySet().stream()
+                .map(entry -> new Hotspot(entry.getKey(), entry.getValue().query, entry.getValue().forecastDays,
+                        sketch.estimate(entry.getKey())))
+                .filter(hotspot -> hotspot.frequency() > 0)
+                .sorted(Comparator.comparingInt(Hotspot::frequency).reversed())
+                .limit(n)
+                .toList();
+    }
+
+    public Map<String, Object> getStats() {
+        return Map.of(
+                "enabled", enabled,
+                "tracked", candidates.size(),
+                "recorded", recorded.sum(),
+                "persistedAt", persistedAt != null ? persistedAt : "never");
+    }
+
+    @Override
+    public void close() {
+        if (persistence != null) {
+            persistence.dispose();
+            persist();
+        }
+    }
+
+    // Drops the least frequent candidates; their counts stay in the sketch, so a key
+    // that becomes popular again is readmitted with its history
+    private void prune() {
+        try {
+            int excess = candidates.size() - trackedKeys;
+            if (excess <= 0) {
+                return;
+            }
+            candidates.keySet().stream()
+                    .map(key -> Map.entry(key, sketch.estimate(key)))
+                    .sorted(Map.Entry.comparingByValue())
+                    .limit(excess)
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(candidates::remove);
+        } catch (RuntimeException e) {
+            log.warn("popularity prune failed: {}", e.getMessage());
+        } finally {
+            pruning.set(false);
+        }
+    }
+
+    // One "key<TAB>query<TAB>forecastDays<TAB>frequency" line per candidate, replaced atomically
+    private synchronized void persist() {
+        List<Hotspot> hotspots = top(trackedKeys);
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                for (Hotspot hotspot : hotspots) {
+                    writer.write(hotspot.key() + "\t" + hotspot.query() + "\t" + hotspot.forecastDays()
+                            + "\t" + hotspot.frequency());
+                    writer.newLine();
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            persistedAt = LocalDateTime.now().toString();
+        } catch (IOException e) {
+            log.warn("popularity save path={} failed: {}", path, e.getMessage());
+        }
+    }
+
+    private void load() {
+        if (!Files.isRegularFile(path)) {
+            return;
+        }
+
+        int loaded = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null && loaded < trackedKeys) {
+                String[] fields = line.split("\t", -1);
+                if (fields.length < 4 || fields[0].isEmpty() || fields[1].isEmpty()) {
+                    continue;
+                }
+                try {
+                    int forecastDays = Integer.parseInt(fields[2]);
+                    int frequency = Integer.parseInt(fields[3]);
+                    candidates.put(fields[0], new Candidate(fields[1], forecastDays));
+                    sketch.add(fields[0], Math.max(1, frequency));
+                    loaded++;
+                } catch (NumberFormatException e) {
+                    // Skip malformed lines
+                }
+            }
+            log.info("popularity loaded keys={} path={}", loaded, path);
+        } catch (IOException e) {
+            log.warn("popularity load path={} failed: {}", path, e.getMessage());
+        }
+    }
+
+    private record Candidate(String query, int forecastDays) {
+    }
+
+    /**
+     * @param key          cache key the requests resolved to
+     * @param query        location to send upstream when warming the key
+     * @param forecastDays widest forecast requested, 0 if only current weather was
+     * @param frequency    estimated recent request count
+     */
+    public record Hotspot(String key, String query, int forecastDays, int frequency) {
+    }
+}
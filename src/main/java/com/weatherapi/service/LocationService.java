@@ -1,20 +1,42 @@
 package com.weatherapi.service;
 
+import com.weatherapi.cache.CacheRefresher;
+import com.weatherapi.cache.LocationKeyResolver;
+import com.weatherapi.client.StreamingJson;
+import com.weatherapi.client.UpstreamCalls;
 import com.weatherapi.model.LocationData;
+import com.weatherapi.model.WeatherData;
+import com.weatherapi.ratelimit.UpstreamRateLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 @Service
 public class LocationService {
 
-    private final WebClient webClient;
-    private final ObjectMapper objectMapper;
+    private static final Logger log = LoggerFactory.getLogger(LocationService.class);
+
+    private final WebClient openWeatherClient;
+    private final WebClient weatherApiClient;
+    private final RequestCoalescer requestCoalescer;
+    private final LocationKeyResolver locationKeys;
+    private final CacheManager cacheManager;
+    private final UpstreamRateLimiter upstreamLimits;
+    private final UpstreamCalls upstreamCalls;
+    private final LocationIndex locationIndex;
 
     @Value("${weather.api.openweather.key}")
     private String openWeatherKey;
@@ -22,30 +44,156 @@ public class LocationService {
     @Value("${weather.api.weatherapi.key}")
     private String weatherApiKey;
 
-    public LocationService(WebClient webClient) {
-        this.webClient = webClient;
-        this.objectMapper = new ObjectMapper();
+    @Value("${weather.api.openweather.geo-url}")
+    private String openWeatherGeoUrl;
+
+    @Value("${weather.api.weatherapi.url}")
+    private String weatherApiUrl;
+
+    public LocationService(@Qualifier("openWeatherWebClient") WebClient openWeatherClient,
+                           @Qualifier("weatherApiWebClient") WebClient weatherApiClient,
+                           RequestCoalescer requestCoalescer, CacheRefresher cacheRefresher,
+                           LocationKeyResolver locationKeys, CacheManager cacheManager,
+                           UpstreamRateLimiter upstreamLimits, UpstreamCalls upstreamCalls,
+                           LocationIndex locationIndex) {
+        this.openWeatherClient = openWeatherClient;
+        this.weatherApiClient = weatherApiClient;
+        this.requestCoalescer = requestCoalescer;
+        this.locationKeys = locationKeys;
+        this.cacheManager = cacheManager;
+        this.upstreamLimits = upstreamLimits;
+        this.upstreamCalls = upstreamCalls;
+        this.locationIndex = locationIndex;
+
+        // Only used when cache.refresh.locations is enabled. A reload that only got the
+        // fallback places fails, so the stale entry is kept.
+        cacheRefresher.register("locations", key -> requestCoalescer.executeReactive("locations", key,
+                        () -> fetchLocationsReactive((String) key))
+                .flatMap(data -> data.isFallback()
+                        ? Mono.error(new IllegalStateException("no geocoder answered"))
+                        : Mono.just(data)));
     }
 
-    @Cacheable(value = "locations", key = "#query")
+    // The fallback places are returned but never cached
+    @Cacheable(value = "locations", key = "@locationKeyResolver.normalize(#query)", unless = "#result.fallback")
     public LocationData searchLocations(String query) {
-        System.out.println("🔍 Searching REAL locations for: " + query);
+        LocationData indexed = searchIndex(query);
+        if (indexed != null) {
+            return indexed;
+        }
+        return requestCoalescer.execute("locations", locationKeys.normalize(query), () -> fetchLocations(query));
+    }
 
-        List<LocationData.Location> locations = new ArrayList<>();
+    private LocationData fetchLocations(String query) {
+        log.debug("location search query={}", query);
 
-        try {
-            // Try OpenWeatherMap geocoding first
-            locations.addAll(searchOpenWeatherLocations(query));
-        } catch (Exception e) {
-            System.err.println("OpenWeather geocoding failed: " + e.getMessage());
+        // Both geocoding APIs are queried at once; only the caller waits, once, for both
+        return fetchLocationsReactive(query).block();
+    }
+
+    // Non-blocking variant used by the reactive controllers. Both geocoding
+    // APIs are queried at the same time instead of one after the other.
+    @Cacheable(value = "locations", key = "@locationKeyResolver.normalize(#query)", unless = "#result.fallback")
+    public Mono<LocationData> searchLocationsReactive(String query) {
+        LocationData indexed = searchIndex(query);
+        if (indexed != null) {
+            return Mono.just(indexed);
         }
+        return requestCoalescer.executeReactive("locations", locationKeys.normalize(query),
+                () -> fetchLocationsReactive(query));
+    }
 
-        try {
-            // Try WeatherAPI search
-            locations.addAll(searchWeatherApiLocations(query));
-        } catch (Exception e) {
-            System.err.println("WeatherAPI search failed: " + e.getMessage());
+    private Mono<LocationData> fetchLocationsReactive(String query) {
+        log.debug("location search query={} mode=reactive", query);
+
+        Mono<List<LocationData.Location>> openWeather = openWeatherLocations(query);
+        Mono<List<LocationData.Location>> weatherApi = weatherApiLocations(query);
+
+        return Mono.zip(openWeather, weatherApi)
+                .map(results -> {
+                    List<LocationData.Location> locations = new ArrayList<>(results.getT1());
+                    locations.addAll(results.getT2());
+                    return buildLocationData(query, locations);
+                });
+    }
+
+    /**
+     * Emits each location as soon as its geocoding source answers instead of waiting
+     * for both. Served from the locations cache when possible; a completed stream
+     * stores its combined result there.
+     */
+    public Flux<LocationData.Location> streamLocations(String query) {
+        String key = locationKeys.normalize(query);
+        LocationData cached = locationsCache().get(key, LocationData.class);
+        if (cached != null) {
+            return Flux.fromIterable(cached.getLocations());
+        }
+
+        LocationData indexed = searchIndex(query);
+        if (indexed != null) {
+            return Flux.fromIterable(indexed.getLocations());
+        }
+
+        log.debug("location search query={} mode=stream", query);
+
+        List<LocationData.Location> collected = Collections.synchronizedList(new ArrayList<>());
+        return Flux.merge(openWeatherLocations(query), weatherApiLocations(query))
+                .flatMapIterable(locations -> locations)
+                .doOnNext(collected::add)
+                .concatWith(Flux.defer(() -> {
+                    int sent = collected.size();
+                    LocationData data = buildLocationData(query, new ArrayList<>(collected));
+                    if (!data.isFallback()) {
+                        locationsCache().put(key, data);
+                    }
+                    // Only indexed places geocoding did not return, or the fallback entries, are left to send
+                    List<LocationData.Location> locations = data.getLocations();
+                    return Flux.fromIterable(locations.subList(Math.min(sent, locations.size()), locations.size()));
+                }));
+    }
+
+    private Mono<List<LocationData.Location>> openWeatherLocations(String query) {
+        return requestOpenWeatherLocations(query)
+                .onErrorResume(e -> {
+                    log.warn("provider=openweather geocoding failed: {}", e.getMessage());
+                    return Mono.just(new ArrayList<>());
+                });
+    }
+
+    private Mono<List<LocationData.Location>> weatherApiLocations(String query) {
+        return requestWeatherApiLocations(query)
+                .onErrorResume(e -> {
+                    log.warn("provider=weatherapi location search failed: {}", e.getMessage());
+                    return Mono.just(new ArrayList<>());
+                });
+    }
+
+    // Answered from the local index only when it holds every match for the query; otherwise
+    // geocoding is asked and its results are merged with the indexed ones
+    private LocationData searchIndex(String query) {
+        List<LocationData.Location> matches = locationIndex.search(query);
+        if (matches.isEmpty()) {
+            return null;
+        }
+
+        LocationData data = new LocationData();
+        data.setLocations(matches);
+        data.setCount(matches.size());
+        return data;
+    }
+
+    private Cache locationsCache() {
+        return cacheManager.getCache("locations");
+    }
+
+    private LocationData buildLocationData(String query, List<LocationData.Location> found) {
+        // Teach the key resolver "name,country" aliases and the index every real result
+        // (both skip places without coordinates)
+        for (LocationData.Location location : found) {
+            locationKeys.register(null, location.getName(), location.getCountry(), location.getLat(), location.getLon());
         }
+        // Geocoding results first, then places the index already knew for this prefix
+        List<LocationData.Location> locations = locationIndex.addResults(query, found);
 
         // Fallback to mock data if both APIs fail
         if (locations.isEmpty()) {
@@ -59,69 +207,75 @@ public class LocationService {
         return data;
     }
 
-    private List<LocationData.Location> searchOpenWeatherLocations(String query) {
-        try {
-            String response = webClient.get()
-                    .uri("http://api.openweathermap.org/geo/1.0/direct?q={query}&limit=5&appid={key}",
+    private Mono<List<LocationData.Location>> requestOpenWeatherLocations(String query) {
+        return upstreamCalls.call("openweather", "geocoding", () -> {
+            Flux<DataBuffer> body = openWeatherClient.get()
+                    .uri(openWeatherGeoUrl + "/direct?q={query}&limit=5&appid={key}",
                             query, openWeatherKey)
                     .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
+                    .bodyToFlux(DataBuffer.class);
 
-            JsonNode root = objectMapper.readTree(response);
-            List<LocationData.Location> locations = new ArrayList<>();
+            return upstreamLimits.guard("openweather", StreamingJson.decode(body, this::parseOpenWeatherLocations));
+        });
+    }
 
-            for (JsonNode item : root) {
-                LocationData.Location location = new LocationData.Location();
-                location.setName(item.path("name").asText());
-                location.setCountry(item.path("country").asText());
-                location.setLat(item.path("lat").asDouble());
-                location.setLon(item.path("lon").asDouble());
-                location.setSource("OpenWeatherMap");
-                locations.add(location);
-            }
+    private Mono<List<LocationData.Location>> requestWeatherApiLocations(String query) {
+        return upstreamCalls.call("weatherapi", "search", () -> {
+            Flux<DataBuffer> body = weatherApiClient.get()
+                    .uri(weatherApiUrl + "/search.json?key={key}&q={query}",
+                            weatherApiKey, query)
+                    .retrieve()
+                    .bodyToFlux(DataBuffer.class);
 
-            return locations;
+            return upstreamLimits.guard("weatherapi", StreamingJson.decode(body, this::parseWeatherApiLocations));
+        });
+    }
 
-        } catch (Exception e) {
-            throw new RuntimeException("OpenWeather geocoding failed");
-        }
+    private List<LocationData.Location> parseOpenWeatherLocations(JsonParser parser) {
+        return parseLocations(parser, "OpenWeatherMap");
     }
 
-    private List<LocationData.Location> searchWeatherApiLocations(String query) {
-        try {
-            String response = webClient.get()
-                    .uri("http://api.weatherapi.com/v1/search.json?key={key}&q={query}",
-                            weatherApiKey, query)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
+    private List<LocationData.Location> parseWeatherApiLocations(JsonParser parser) {
+        return parseLocations(parser, "WeatherAPI");
+    }
 
-            JsonNode root = objectMapper.readTree(response);
+    private List<LocationData.Location> parseLocations(JsonParser parser, String source) {
+        try {
             List<LocationData.Location> locations = new ArrayList<>();
 
-            for (JsonNode item : root) {
+            // Both providers answer with a flat array; per-language name maps and the like are skipped
+            StreamingJson.forEachElement(parser, item -> {
                 LocationData.Location location = new LocationData.Location();
-                location.setName(item.path("name").asText());
-                location.setCountry(item.path("country").asText());
-                location.setLat(item.path("lat").asDouble());
-                location.setLon(item.path("lon").asDouble());
-                location.setSource("WeatherAPI");
+                location.setName("");
+                location.setCountry("");
+                // (0, 0) is a real place: missing coordinates stay null and the place is neither
+                // registered as an alias nor indexed
+                location.setSource(source);
+
+                StreamingJson.forEachField(item, (field, value) -> {
+                    switch (field) {
+                        case "name" -> location.setName(value.getValueAsString(""));
+                        case "country" -> location.setCountry(value.getValueAsString(""));
+                        case "lat" -> location.setLat(value.getValueAsDouble());
+                        case "lon" -> location.setLon(value.getValueAsDouble());
+                        default -> { }
+                    }
+                });
                 locations.add(location);
-            }
+            });
 
             return locations;
 
         } catch (Exception e) {
-            throw new RuntimeException("WeatherAPI search failed");
+            throw new RuntimeException("Failed to parse " + source + " locations");
         }
     }
 
     private List<LocationData.Location> createFallbackLocations(String query) {
         List<LocationData.Location> locations = new ArrayList<>();
 
-        locations.add(createLocation("1", query, "US", 40.7128, -74.0060, "Fallback"));
-        locations.add(createLocation("2", query, "UK", 51.5074, -0.1278, "Fallback"));
+        locations.add(createLocation("1", query, "US", 40.7128, -74.0060, WeatherData.FALLBACK_SOURCE));
+        locations.add(createLocation("2", query, "UK", 51.5074, -0.1278, WeatherData.FALLBACK_SOURCE));
 
         return locations;
     }
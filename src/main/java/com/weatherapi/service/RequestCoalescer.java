@@ -0,0 +1,122 @@
+package com.weatherapi.service;
+
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates concurrent upstream fetches for the same cache key. The first
+ * caller for a key runs the loader; callers arriving while it is in flight
+ * wait for and share its result instead of sending their own requests.
+ *
+ * Sits behind @Cacheable, so it only sees cache misses.
+ */
+@Component
+public class RequestCoalescer {
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+
+    // Blocking variant: the leading caller runs the loader on its own thread
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String cacheName, Object key, Supplier<T> loader) {
+        String flightKey = cacheName + ":" + key;
+        CompletableFuture<Object> created = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(flightKey, created);
+
+        if (existing != null) {
+            countersFor(cacheName).coalesced.increment();
+            try {
+                return (T) existing.join();
+            } catch (CompletionException e) {
+                throw unwrap(e);
+            }
+        }
+
+        countersFor(cacheName).fetches.increment();
+        try {
+            T value = loader.get();
+            created.complete(value);
+            return value;
+        } catch (Throwable e) {
+            // Errors too: waiters that already joined would otherwise block forever
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, created);
+        }
+    }
+
+    // Reactive variant: the shared fetch keeps running even if the leading subscriber cancels
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> executeReactive(String cacheName, Object key, Supplier<Mono<T>> loader) {
+        return Mono.defer(() -> {
+            String flightKey = cacheName + ":" + key;
+            CompletableFuture<Object> created = new CompletableFuture<>();
+            CompletableFuture<Object> existing = inFlight.putIfAbsent(flightKey, created);
+
+            if (existing != null) {
+                countersFor(cacheName).coalesced.increment();
+                return Mono.fromFuture(existing, true).map(value -> (T) value);
+            }
+
+            countersFor(cacheName).fetches.increment();
+            created.whenComplete((value, ex) -> inFlight.remove(flightKey, created));
+            // A loader throwing on assembly fails the shared future instead of leaving it in flight
+            Mono.defer(loader).toFuture().whenComplete((value, ex) -> {
+                if (ex != null) {
+                    created.completeExceptionally(ex);
+                } else {
+                    created.complete(value);
+                }
+            });
+            return Mono.fromFuture(created, true).map(value -> (T) value);
+        });
+    }
+
+    public long getCoalescedCount(String cacheName) {
+        Counters c = counters.get(cacheName);
+        return c == null ? 0 : c.coalesced.sum();
+    }
+
+    public long getFetchCount(String cacheName) {
+        Counters c = counters.get(cacheName);
+        return c == null ? 0 : c.fetches.sum();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new TreeMap<>();
+        counters.forEach((name, c) -> stats.put(name, Map.of(
+                "fetches", c.fetches.sum(),
+                "coalesced", c.coalesced.sum(),
+                "inFlight", inFlight.keySet().stream().filter(k -> k.startsWith(name + ":")).count()
+        )));
+        return stats;
+    }
+
+    private Counters countersFor(String cacheName) {
+        return counters.computeIfAbsent(cacheName, name -> new Counters());
+    }
+
+    private RuntimeException unwrap(CompletionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new RuntimeException(cause);
+    }
+
+    private static class Counters {
+        final LongAdder fetches = new LongAdder();
+        final LongAdder coalesced = new LongAdder();
+    }
+}
@@ -0,0 +1,79 @@
+package com.weatherapi.service;
+
+import com.weatherapi.model.BatchResponse;
+import com.weatherapi.model.ForecastData;
+import com.weatherapi.model.WeatherData;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Looks up many locations in one call. Every location goes through the cached,
+ * coalesced WeatherService methods, so cached entries answer immediately and only
+ * misses reach upstream, at most weather.batch.max-concurrency at a time.
+ */
+@Service
+public class WeatherBatchService {
+
+    private final WeatherService weatherService;
+    private final LocationPopularity popularity;
+
+    @Value("${weather.batch.max-locations:100}")
+    private int maxLocations;
+
+    @Value("${weather.batch.max-concurrency:8}")
+    private int maxConcurrency;
+
+    public WeatherBatchService(WeatherService weatherService, LocationPopularity popularity) {
+        this.weatherService = weatherService;
+        this.popularity = popularity;
+    }
+
+    public int getMaxLocations() {
+        return maxLocations;
+    }
+
+    public Mono<BatchResponse<WeatherData>> getCurrentWeather(List<String> locations) {
+        return lookupAll(locations, 0, weatherService::getCurrentWeatherReactive);
+    }
+
+    public Mono<BatchResponse<ForecastData>> getForecast(List<String> locations, int days) {
+        return lookupAll(locations, days, location -> weatherService.getForecastReactive(location, days));
+    }
+
+    // Streaming variants: each location is emitted as soon as it resolves, in completion order
+    public Flux<BatchResponse.Item<WeatherData>> streamCurrentWeather(List<String> locations) {
+        return Flux.fromIterable(locations)
+                .flatMap(location -> lookupOne(location, 0, weatherService::getCurrentWeatherReactive), maxConcurrency);
+    }
+
+    public Flux<BatchResponse.Item<ForecastData>> streamForecast(List<String> locations, int days) {
+        return Flux.fromIterable(locations)
+                .flatMap(location -> lookupOne(location, days, l -> weatherService.getForecastReactive(l, days)), maxConcurrency);
+    }
+
+    // Results keep the order of the requested locations
+    private <T> Mono<BatchResponse<T>> lookupAll(List<String> locations, int forecastDays,
+                                                 Function<String, Mono<T>> lookup) {
+        return Flux.fromIterable(locations)
+                .flatMapSequential(location -> lookupOne(location, forecastDays, lookup), maxConcurrency)
+                .collectList()
+                .map(BatchResponse::new);
+    }
+
+    // forecastDays is 0 for current weather
+    private <T> Mono<BatchResponse.Item<T>> lookupOne(String location, int forecastDays,
+                                                      Function<String, Mono<T>> lookup) {
+        if (location == null || location.trim().isEmpty()) {
+            return Mono.just(BatchResponse.Item.error(location, "Location is required"));
+        }
+
+        popularity.record(location.trim(), forecastDays);
+        return Mono.defer(() -> lookup.apply(location.trim()))
+                .map(data -> BatchResponse.Item.success(location, data))
+                .onErrorResume(e -> Mono.just(BatchResponse.Item.error(location, e.getMessage())));
+    }
+}
@@ -1,208 +1,298 @@
 package com.weatherapi.service;
 
+import com.weatherapi.cache.CacheRefresher;
+import com.weatherapi.cache.CachedForecast;
+import com.weatherapi.cache.LocationKeyResolver;
 import com.weatherapi.model.WeatherData;
 import com.weatherapi.model.ForecastData;
+import com.weatherapi.client.StreamingJson;
+import com.weatherapi.client.UpstreamCalls;
+import com.weatherapi.provider.WeatherAggregator;
+import com.weatherapi.ratelimit.UpstreamRateLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import java.time.LocalDateTime;
+import com.fasterxml.jackson.core.JsonParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.concurrent.CompletableFuture;
 
 @Service
 public class WeatherService {
 
-    private final WebClient webClient;
-    private final ObjectMapper objectMapper;
+    private static final Logger log = LoggerFactory.getLogger(WeatherService.class);
 
-    @Value("${weather.api.openweather.key}")
-    private String openWeatherKey;
+    private final WebClient weatherApiClient;
+    private final RequestCoalescer requestCoalescer;
+    private final LocationKeyResolver locationKeys;
+    private final CacheManager cacheManager;
+    private final UpstreamRateLimiter upstreamLimits;
+    private final UpstreamCalls upstreamCalls;
+    private final WeatherAggregator weatherAggregator;
+
+    private static final int DEFAULT_FORECAST_DAYS = 5;
 
     @Value("${weather.api.weatherapi.key}")
     private String weatherApiKey;
 
-    public WeatherService(WebClient webClient) {
-        this.webClient = webClient;
-        this.objectMapper = new ObjectMapper();
+    @Value("${weather.api.weatherapi.url}")
+    private String weatherApiUrl;
+
+    public WeatherService(@Qualifier("weatherApiWebClient") WebClient weatherApiClient,
+                          RequestCoalescer requestCoalescer, CacheRefresher cacheRefresher,
+                          LocationKeyResolver locationKeys, CacheManager cacheManager,
+                          UpstreamRateLimiter upstreamLimits, UpstreamCalls upstreamCalls,
+                          WeatherAggregator weatherAggregator) {
+        this.weatherApiClient = weatherApiClient;
+        this.requestCoalescer = requestCoalescer;
+        this.locationKeys = locationKeys;
+        this.cacheManager = cacheManager;
+        this.upstreamLimits = upstreamLimits;
+        this.upstreamCalls = upstreamCalls;
+        this.weatherAggregator = weatherAggregator;
+
+        // Background reloads for hot entries past their soft TTL. A reload that only got
+        // the fallback fails, so the stale entry is kept until a real one arrives.
+        cacheRefresher.register("weather", key -> requestCoalescer.executeReactive("weather", key,
+                        () -> fetchCurrentWeatherReactive((String) key))
+                .flatMap(data -> realOnly(data, data.isFallback())));
+        cacheRefresher.register("forecast", key -> cachedForecast((String) key)
+                // Reload the same span that is cached now
+                .map(CachedForecast::getRequestedDays)
+                .defaultIfEmpty(DEFAULT_FORECAST_DAYS)
+                // The request path's flight and store: requests joining a refresh get a CachedForecast,
+                // and a reload of the old span never replaces a wider entry stored meanwhile
+                .flatMap(days -> fetchForecastEntry((String) key, (String) key, days))
+                .flatMap(entry -> realOnly(entry, entry.isFallback()))
+                .then());
     }
 
-    @Cacheable(value = "weather", key = "#location")
-    public WeatherData getCurrentWeather(String location) {
-        System.out.println("🌤️  Fetching REAL weather data for: " + location + " at " + LocalDateTime.now());
+    private static <T> Mono<T> realOnly(T data, boolean fallback) {
+        return fallback ? Mono.error(new IllegalStateException("no provider answered")) : Mono.just(data);
+    }
 
-        try {
-            // Fetch from both APIs in parallel
-            CompletableFuture<WeatherData> openWeatherFuture = getOpenWeatherData(location);
-            CompletableFuture<WeatherData> weatherApiFuture = getWeatherApiData(location);
+    // Fallback data is returned but never cached: a breaker open for a few seconds
+    // would otherwise pin it for the whole TTL
+    @Cacheable(value = "weather", key = "@locationKeyResolver.resolve(#location)", unless = "#result.fallback")
+    public WeatherData getCurrentWeather(String location) {
+        return requestCoalescer.execute("weather", locationKeys.resolve(location),
+                () -> cacheUnderCanonicalKey(location, fetchCurrentWeather(location)));
+    }
 
-            // Wait for both to complete
-            WeatherData openWeatherData = openWeatherFuture.get();
-            WeatherData weatherApiData = weatherApiFuture.get();
+    private WeatherData fetchCurrentWeather(String location) {
+        log.debug("fetching current location={}", location);
 
-            // Aggregate results
-            return aggregateWeatherData(openWeatherData, weatherApiData);
+        try {
+            // Fetch from all providers in parallel, each bounded by its provider deadline
+            return collectSources(location).block();
 
         } catch (Exception e) {
-            System.err.println("Error fetching weather data: " + e.getMessage());
+            log.warn("current location={} failed: {}", location, e.getMessage());
             throw new RuntimeException("Failed to fetch weather data from APIs");
         }
     }
 
-    private CompletableFuture<WeatherData> getOpenWeatherData(String location) {
-        return webClient.get()
-                .uri("https://api.openweathermap.org/data/2.5/weather?q={location}&appid={key}&units=metric",
-                        location, openWeatherKey)
-                .retrieve()
-                .bodyToMono(String.class)
-                .map(this::parseOpenWeatherResponse)
-                .toFuture()
-                .exceptionally(ex -> {
-                    System.err.println("OpenWeather API error: " + ex.getMessage());
-                    return createFallbackWeatherData(location, "OpenWeather");
-                });
+    // Non-blocking variant used by the reactive controllers. Both providers are
+    // subscribed at once and the servlet thread is released while they are in flight.
+    // #result is the emitted WeatherData here, so fallback data is left out of the cache as above
+    @Cacheable(value = "weather", key = "@locationKeyResolver.resolve(#location)", unless = "#result.fallback")
+    public Mono<WeatherData> getCurrentWeatherReactive(String location) {
+        return requestCoalescer.executeReactive("weather", locationKeys.resolve(location),
+                () -> fetchCurrentWeatherReactive(location).map(data -> cacheUnderCanonicalKey(location, data)));
     }
 
-    private CompletableFuture<WeatherData> getWeatherApiData(String location) {
-        return webClient.get()
-                .uri("http://api.weatherapi.com/v1/current.json?key={key}&q={location}&aqi=no",
-                        weatherApiKey, location)
-                .retrieve()
-                .bodyToMono(String.class)
-                .map(this::parseWeatherApiResponse)
-                .toFuture()
-                .exceptionally(ex -> {
-                    System.err.println("WeatherAPI error: " + ex.getMessage());
-                    return createFallbackWeatherData(location, "WeatherAPI");
-                });
+    private Mono<WeatherData> fetchCurrentWeatherReactive(String location) {
+        log.debug("fetching current location={} mode=reactive", location);
+
+        return collectSources(location);
     }
 
-    private WeatherData parseOpenWeatherResponse(String response) {
-        try {
-            JsonNode root = objectMapper.readTree(response);
-
-            WeatherData data = new WeatherData();
-            WeatherData.Location location = new WeatherData.Location();
-
-            location.setName(root.path("name").asText());
-            location.setCountry(root.path("sys").path("country").asText());
-            location.setLat(root.path("coord").path("lat").asDouble());
-            location.setLon(root.path("coord").path("lon").asDouble());
-
-            WeatherData.CurrentWeather current = new WeatherData.CurrentWeather();
-            JsonNode main = root.path("main");
-            JsonNode weather = root.path("weather").get(0);
-            JsonNode wind = root.path("wind");
-
-            current.setTemperature(main.path("temp").asDouble());
-            current.setFeelsLike(main.path("feels_like").asDouble());
-            current.setHumidity(main.path("humidity").asInt());
-            current.setPressure(main.path("pressure").asInt());
-            current.setWindSpeed(wind.path("speed").asDouble());
-            current.setCondition(weather.path("main").asText());
-            current.setDescription(weather.path("description").asText());
-
-            data.setLocation(location);
-            data.setCurrent(current);
-            data.setSources(Arrays.asList("OpenWeatherMap"));
-            data.setLastUpdated(LocalDateTime.now().toString());
+    // Every enabled provider is queried at once; those that fail or miss their deadline are left out
+    private Mono<WeatherData> collectSources(String location) {
+        return weatherAggregator.aggregate(locationKeys.upstreamQuery(location));
+    }
 
+    // Remembers where the query resolved to and stores the result under that place's
+    // canonical key, so other spellings and coordinates of it hit the same entry.
+    private WeatherData cacheUnderCanonicalKey(String location, WeatherData data) {
+        if (data.isFallback()) {
             return data;
+        }
 
-        } catch (Exception e) {
-            System.err.println("Error parsing OpenWeather response: " + e.getMessage());
-            throw new RuntimeException("Failed to parse OpenWeather data");
+        WeatherData.Location resolved = data.getLocation();
+        String canonicalKey = locationKeys.register(location, resolved.getName(), resolved.getCountry(),
+                resolved.getLat(), resolved.getLon());
+
+        if (canonicalKey != null && !canonicalKey.equals(locationKeys.normalize(location))) {
+            cacheManager.getCache("weather").put(canonicalKey, data);
         }
+        return data;
     }
 
-    private WeatherData parseWeatherApiResponse(String response) {
-        try {
-            JsonNode root = objectMapper.readTree(response);
-            JsonNode location = root.path("location");
-            JsonNode current = root.path("current");
-
-            WeatherData data = new WeatherData();
-            WeatherData.Location loc = new WeatherData.Location();
-
-            loc.setName(location.path("name").asText());
-            loc.setCountry(location.path("country").asText());
-            loc.setLat(location.path("lat").asDouble());
-            loc.setLon(location.path("lon").asDouble());
-
-            WeatherData.CurrentWeather currentWeather = new WeatherData.CurrentWeather();
-            currentWeather.setTemperature(current.path("temp_c").asDouble());
-            currentWeather.setFeelsLike(current.path("feelslike_c").asDouble());
-            currentWeather.setHumidity(current.path("humidity").asInt());
-            currentWeather.setPressure(current.path("pressure_mb").asInt());
-            currentWeather.setWindSpeed(current.path("wind_kph").asDouble() / 3.6); // Convert to m/s
-            currentWeather.setCondition(current.path("condition").path("text").asText());
-            currentWeather.setDescription(current.path("condition").path("text").asText());
+    // Stores a fetched forecast under the query's key and its canonical key, unless
+    // a wider range is already cached there. The fallback is only handed to the caller:
+    // stored, it would count as wider and replace the real days every shorter range is sliced from.
+    private CachedForecast storeForecast(String key, String location, CachedForecast forecast) {
+        if (forecast.isFallback()) {
+            return forecast;
+        }
 
-            data.setLocation(loc);
-            data.setCurrent(currentWeather);
-            data.setSources(Arrays.asList("WeatherAPI"));
-            data.setLastUpdated(LocalDateTime.now().toString());
+        ForecastData.Location resolved = forecast.getLocation();
+        String canonicalKey = locationKeys.register(location, resolved.getName(), resolved.getCountry(),
+                resolved.getLat(), resolved.getLon());
 
-            return data;
+        storeIfWider(key, forecast);
+        if (canonicalKey != null && !canonicalKey.equals(key)) {
+            storeIfWider(canonicalKey, forecast);
+        }
+        return forecast;
+    }
 
-        } catch (Exception e) {
-            System.err.println("Error parsing WeatherAPI response: " + e.getMessage());
-            throw new RuntimeException("Failed to parse WeatherAPI data");
+    private void storeIfWider(String key, CachedForecast forecast) {
+        CachedForecast existing = forecastCache().get(key, CachedForecast.class);
+        if (existing == null || existing.getRequestedDays() <= forecast.getRequestedDays()) {
+            forecastCache().put(key, forecast);
         }
     }
 
-    @Cacheable(value = "forecast", key = "#location + '_' + #days")
+    private Cache forecastCache() {
+        return cacheManager.getCache("forecast");
+    }
+
+    // The forecast cache holds one entry per location with the widest range fetched
+    // so far; shorter ranges are sliced from it and longer ones widen it with one fetch.
     public ForecastData getForecast(String location, int days) {
-        System.out.println("📅 Fetching REAL forecast for: " + location + " days: " + days);
+        return getForecastEntry(location, days).slice(days);
+    }
 
-        try {
-            // Using WeatherAPI for forecast (better free tier)
-            String response = webClient.get()
-                    .uri("http://api.weatherapi.com/v1/forecast.json?key={key}&q={location}&days={days}&aqi=no&alerts=no",
-                            weatherApiKey, location, days)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block(); // Simple blocking call for demo
+    // The cached entry covering at least `days`, fetched or widened if needed
+    public CachedForecast getForecastEntry(String location, int days) {
+        String key = locationKeys.resolve(location);
+        CachedForecast cached = forecastCache().get(key, CachedForecast.class);
+        if (cached != null && cached.covers(days)) {
+            return cached;
+        }
+
+        int fetchDays = cached != null ? Math.max(days, cached.getRequestedDays()) : days;
+        return requestCoalescer.execute("forecast", key + "_" + fetchDays,
+                () -> storeForecast(key, location, new CachedForecast(fetchForecast(location, fetchDays), fetchDays)));
+    }
+
+    private ForecastData fetchForecast(String location, int days) {
+        log.debug("fetching forecast location={} days={}", location, days);
 
-            return parseForecastResponse(response, days);
+        try {
+            return requestForecast(location, days).block(); // Simple blocking call for demo
 
         } catch (Exception e) {
-            System.err.println("Error fetching forecast: " + e.getMessage());
+            log.warn("forecast location={} failed: {}", location, e.getMessage());
             return createFallbackForecast(location, days);
         }
     }
 
-    private ForecastData parseForecastResponse(String response, int days) {
-        try {
-            JsonNode root = objectMapper.readTree(response);
-            JsonNode location = root.path("location");
-            JsonNode forecast = root.path("forecast").path("forecastday");
+    public Mono<ForecastData> getForecastReactive(String location, int days) {
+        return getForecastEntryReactive(location, days).map(forecast -> forecast.slice(days));
+    }
+
+    // Subscribed on Reactor threads (batch, streams, warming), so the cache is read through
+    // retrieve() and stored to off the event loop: either may touch the L2 file store
+    public Mono<CachedForecast> getForecastEntryReactive(String location, int days) {
+        return Mono.defer(() -> {
+            String key = locationKeys.resolve(location);
+            return cachedForecast(key)
+                    .flatMap(cached -> cached.covers(days)
+                            ? Mono.just(cached)
+                            : fetchForecastEntry(key, location, Math.max(days, cached.getRequestedDays())))
+                    .switchIfEmpty(Mono.defer(() -> fetchForecastEntry(key, location, days)));
+        });
+    }
+
+    private Mono<CachedForecast> fetchForecastEntry(String key, String location, int fetchDays) {
+        return requestCoalescer.executeReactive("forecast", key + "_" + fetchDays,
+                () -> fetchForecastReactive(location, fetchDays)
+                        .publishOn(Schedulers.boundedElastic())
+                        .map(data -> storeForecast(key, location, new CachedForecast(data, fetchDays))));
+    }
+
+    // The entry under the key without blocking: an L1 miss reads L2 on boundedElastic
+    private Mono<CachedForecast> cachedForecast(String key) {
+        return Mono.defer(() -> {
+            CompletableFuture<?> entry = forecastCache().retrieve(key);
+            return entry == null ? Mono.empty() : Mono.fromFuture(entry)
+                    .mapNotNull(value -> value instanceof Cache.ValueWrapper wrapper ? wrapper.get() : value)
+                    .ofType(CachedForecast.class);
+        });
+    }
+
+    private Mono<ForecastData> fetchForecastReactive(String location, int days) {
+        log.debug("fetching forecast location={} days={} mode=reactive", location, days);
+
+        return requestForecast(location, days)
+                .onErrorResume(e -> {
+                    log.warn("forecast location={} failed: {}", location, e.getMessage());
+                    return Mono.just(createFallbackForecast(location, days));
+                });
+    }
 
+    private Mono<ForecastData> requestForecast(String location, int days) {
+        // Using WeatherAPI for forecast (better free tier)
+        return upstreamCalls.call("weatherapi", "forecast", () -> {
+            Flux<DataBuffer> body = weatherApiClient.get()
+                    .uri(weatherApiUrl + "/forecast.json?key={key}&q={location}&days={days}&aqi=no&alerts=no",
+                            weatherApiKey, locationKeys.upstreamQuery(location), days)
+                    .retrieve()
+                    .bodyToFlux(DataBuffer.class);
+
+            return upstreamLimits.guard("weatherapi",
+                    StreamingJson.decode(body, parser -> parseForecastResponse(parser, days)));
+        });
+    }
+
+    // Days past the requested range and the large per-hour arrays are skipped unread
+    private ForecastData parseForecastResponse(JsonParser parser, int days) {
+        try {
             ForecastData data = new ForecastData();
             ForecastData.Location loc = new ForecastData.Location();
-
-            loc.setName(location.path("name").asText());
-            loc.setCountry(location.path("country").asText());
+            loc.setName("");
+            loc.setCountry("");
+            // (0, 0) is a real place: missing coordinates stay null and register no alias
             data.setLocation(loc);
 
             java.util.List<ForecastData.ForecastDay> forecastDays = new java.util.ArrayList<>();
 
-            for (int i = 0; i < Math.min(days, forecast.size()); i++) {
-                JsonNode day = forecast.get(i);
-                JsonNode dayData = day.path("day");
-
-                ForecastData.ForecastDay forecastDay = new ForecastData.ForecastDay();
-                forecastDay.setDate(day.path("date").asText());
-                forecastDay.setMaxTemp(dayData.path("maxtemp_c").asDouble());
-                forecastDay.setMinTemp(dayData.path("mintemp_c").asDouble());
-                forecastDay.setHumidity(dayData.path("avghumidity").asInt());
-                forecastDay.setCondition(dayData.path("condition").path("text").asText());
-
-                forecastDays.add(forecastDay);
-            }
+            StreamingJson.forEachField(parser, (field, p) -> {
+                switch (field) {
+                    case "location" -> StreamingJson.forEachField(p, (f, v) -> {
+                        switch (f) {
+                            case "name" -> loc.setName(v.getValueAsString(""));
+                            case "country" -> loc.setCountry(v.getValueAsString(""));
+                            case "lat" -> loc.setLat(v.getValueAsDouble());
+                            case "lon" -> loc.setLon(v.getValueAsDouble());
+                            default -> { }
+                        }
+                    });
+                    case "forecast" -> StreamingJson.forEachField(p, (f, v) -> {
+                        if (f.equals("forecastday")) {
+                            StreamingJson.forEachElement(v, day -> {
+                                if (forecastDays.size() < days) {
+                                    forecastDays.add(parseForecastDay(day));
+                                }
+                            });
+                        }
+                    });
+                    default -> { }
+                }
+            });
 
             data.setForecast(forecastDays);
             data.setSources(Arrays.asList("WeatherAPI"));
@@ -210,56 +300,38 @@ public class WeatherService {
             return data;
 
         } catch (Exception e) {
-            System.err.println("Error parsing forecast: " + e.getMessage());
+            log.warn("provider=weatherapi forecast parse failed: {}", e.getMessage());
             throw new RuntimeException("Failed to parse forecast data");
         }
     }
 
-    private WeatherData aggregateWeatherData(WeatherData source1, WeatherData source2) {
-        WeatherData aggregated = new WeatherData();
-
-        // Use location from first source
-        aggregated.setLocation(source1.getLocation());
-
-        WeatherData.CurrentWeather current = new WeatherData.CurrentWeather();
-
-        // Average values from both sources
-        current.setTemperature((source1.getCurrent().getTemperature() + source2.getCurrent().getTemperature()) / 2);
-        current.setFeelsLike((source1.getCurrent().getFeelsLike() + source2.getCurrent().getFeelsLike()) / 2);
-        current.setHumidity((source1.getCurrent().getHumidity() + source2.getCurrent().getHumidity()) / 2);
-        current.setPressure((source1.getCurrent().getPressure() + source2.getCurrent().getPressure()) / 2);
-        current.setWindSpeed((source1.getCurrent().getWindSpeed() + source2.getCurrent().getWindSpeed()) / 2);
-        current.setCondition("Aggregated");
-        current.setDescription("Real-time data from multiple sources");
-
-        aggregated.setCurrent(current);
-        aggregated.setSources(Arrays.asList("OpenWeatherMap", "WeatherAPI"));
-        aggregated.setLastUpdated(LocalDateTime.now().toString());
-
-        return aggregated;
-    }
-
-    private WeatherData createFallbackWeatherData(String location, String source) {
-        WeatherData data = new WeatherData();
-        WeatherData.Location loc = new WeatherData.Location();
-        loc.setName(location);
-        loc.setCountry("N/A");
-
-        WeatherData.CurrentWeather current = new WeatherData.CurrentWeather();
-        current.setTemperature(20.0);
-        current.setFeelsLike(18.0);
-        current.setHumidity(65);
-        current.setPressure(1013);
-        current.setWindSpeed(3.5);
-        current.setCondition("Data Unavailable");
-        current.setDescription("Fallback data - API temporarily unavailable");
-
-        data.setLocation(loc);
-        data.setCurrent(current);
-        data.setSources(Arrays.asList(source + " (Fallback)"));
-        data.setLastUpdated(LocalDateTime.now().toString());
+    private ForecastData.ForecastDay parseForecastDay(JsonParser parser) throws IOException {
+        ForecastData.ForecastDay forecastDay = new ForecastData.ForecastDay();
+        forecastDay.setDate("");
+        forecastDay.setMaxTemp(0.0);
+        forecastDay.setMinTemp(0.0);
+        forecastDay.setHumidity(0);
+        forecastDay.setCondition("");
+
+        StreamingJson.forEachField(parser, (field, p) -> {
+            if (field.equals("date")) {
+                forecastDay.setDate(p.getValueAsString(""));
+            } else if (field.equals("day")) {
+                StreamingJson.forEachField(p, (f, v) -> {
+                    switch (f) {
+                        case "maxtemp_c" -> forecastDay.setMaxTemp(v.getValueAsDouble());
+                        case "mintemp_c" -> forecastDay.setMinTemp(v.getValueAsDouble());
+                        case "avghumidity" -> forecastDay.setHumidity(v.getValueAsInt());
+                        case "condition" -> StreamingJson.forEachField(v, (cf, cv) -> {
+                            if (cf.equals("text")) forecastDay.setCondition(cv.getValueAsString(""));
+                        });
+                        default -> { }
+                    }
+                });
+            }
+        });
 
-        return data;
+        return forecastDay;
     }
 
     private ForecastData createFallbackForecast(String location, int days) {
@@ -281,7 +353,7 @@ public class WeatherService {
         }
 
         data.setForecast(forecastDays);
-        data.setSources(Arrays.asList("Fallback"));
+        data.setSources(Arrays.asList(WeatherData.FALLBACK_SOURCE));
 
         return data;
     }
@@ -0,0 +1,87 @@
+package com.weatherapi.service;
+
+import com.weatherapi.cache.LocationKeyResolver;
+import com.weatherapi.model.WeatherData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live weather updates for subscribed locations. All subscribers of a place share
+ * one topic: it polls WeatherService once per interval (usually a cache hit) and
+ * pushes the result only when it changed, so upstream load grows with the number
+ * of distinct locations rather than the number of clients.
+ */
+@Service
+public class WeatherSubscriptionService {
+
+    private static final Logger log = LoggerFactory.getLogger(WeatherSubscriptionService.class);
+
+    private final WeatherService weatherService;
+    private final LocationKeyResolver locationKeys;
+    private final Map<String, Topic> topics = new ConcurrentHashMap<>();
+
+    @Value("${weather.subscriptions.interval-seconds:60}")
+    private long intervalSeconds;
+
+    public WeatherSubscriptionService(WeatherService weatherService, LocationKeyResolver locationKeys) {
+        this.weatherService = weatherService;
+        this.locationKeys = locationKeys;
+    }
+
+    public Flux<WeatherData> subscribe(String location) {
+        return Flux.defer(() -> {
+            String key = locationKeys.resolve(location);
+            Topic topic = topics.compute(key, (k, existing) -> {
+                Topic t = existing != null ? existing : new Topic(createUpdates(location));
+                t.subscribers.incrementAndGet();
+                return t;
+            });
+
+            // Slow clients skip intermediate updates instead of buffering them
+            return topic.updates
+                    .onBackpressureLatest()
+                    .doFinally(signal -> topics.computeIfPresent(key,
+                            (k, t) -> t.subscribers.decrementAndGet() == 0 ? null : t));
+        });
+    }
+
+    public int getTopicCount() {
+        return topics.size();
+    }
+
+    public int getSubscriberCount() {
+        return topics.values().stream().mapToInt(topic -> topic.subscribers.get()).sum();
+    }
+
+    // Shared per location; polling starts with the first subscriber and stops after the last one leaves
+    private Flux<WeatherData> createUpdates(String location) {
+        return Flux.interval(Duration.ZERO, Duration.ofSeconds(intervalSeconds))
+                .onBackpressureDrop()
+                .concatMap(tick -> weatherService.getCurrentWeatherReactive(location)
+                        .onErrorResume(e -> {
+                            log.warn("subscription location={} refresh failed: {}", location, e.getMessage());
+                            return Mono.empty();
+                        }))
+                .distinctUntilChanged(WeatherData::getLastUpdated, Objects::equals)
+                .replay(1)
+                .refCount();
+    }
+
+    private static class Topic {
+        final Flux<WeatherData> updates;
+        final AtomicInteger subscribers = new AtomicInteger();
+
+        Topic(Flux<WeatherData> updates) {
+            this.updates = updates;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.weatherapi.cache;
+
+import com.weatherapi.model.ForecastData;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachedForecastTest {
+
+    @Test
+    void slicesTheFirstDaysOfAWiderEntry() {
+        CachedForecast cached = new CachedForecast(forecast(7), 7);
+
+        ForecastData sliced = cached.slice(3);
+
+        assertThat(sliced.getForecast()).extracting(ForecastData.ForecastDay::getDate)
+                .containsExactly("2026-10-01", "2026-10-02", "2026-10-03");
+        assertThat(sliced.getLocation().getName()).isEqualTo("London");
+        assertThat(sliced.getSources()).containsExactly("WeatherAPI");
+        assertThat(cached.getData().getForecast()).hasSize(7);
+    }
+
+    @Test
+    void coverageFollowsTheRequestedSpanNotTheDaysReturned() {
+        // Asked for 10 days, the provider only had 7
+        CachedForecast cached = new CachedForecast(forecast(7), 10);
+
+        assertThat(cached.covers(10)).isTrue();
+        assertThat(cached.covers(11)).isFalse();
+        assertThat(cached.slice(10).getForecast()).hasSize(7);
+    }
+
+    @Test
+    void slicesAreCopiesOfTheEntry() {
+        CachedForecast cached = new CachedForecast(forecast(3), 3);
+
+        cached.slice(3).getForecast().get(0).setMaxTemp(99.0);
+
+        assertThat(cached.slice(3).getForecast().get(0).getMaxTemp()).isEqualTo(20.0);
+    }
+
+    static ForecastData forecast(int days) {
+        ForecastData.Location location = new ForecastData.Location();
+        location.setName("London");
+        location.setCountry("United Kingdom");
+        location.setLat(51.52);
+        location.setLon(-0.11);
+
+        List<ForecastData.ForecastDay> forecast = new ArrayList<>();
+        for (int i = 0; i < days; i++) {
+            ForecastData.ForecastDay day = new ForecastData.ForecastDay();
+            day.setDate(String.format("2026-10-%02d", i + 1));
+            day.setMaxTemp(20.0 + i);
+            day.setMinTemp(10.0 + i);
+            day.setHumidity(70);
+            day.setCondition("Cloudy");
+            forecast.add(day);
+        }
+
+        ForecastData data = new ForecastData();
+        data.setLocation(location);
+        data.setForecast(forecast);
+        data.setSources(List.of("WeatherAPI"));
+        return data;
+    }
+}
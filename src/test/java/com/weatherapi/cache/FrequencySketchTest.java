@@ -0,0 +1,117 @@
+package com.weatherapi.cache;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FrequencySketchTest {
+
+    @Test
+    void countsEachKeySeparately() {
+        FrequencySketch sketch = new FrequencySketch(1000);
+        for (int i = 0; i < 7; i++) {
+            sketch.increment("london");
+        }
+        sketch.add("paris", 3);
+
+        assertThat(sketch.estimate("london")).isEqualTo(7);
+        assertThat(sketch.estimate("paris")).isEqualTo(3);
+        assertThat(sketch.estimate("berlin")).isZero();
+    }
+
+    @Test
+    void conservativeUpdateLeavesASharedCounterAlone() {
+        FrequencySketch sketch = new FrequencySketch(16);
+        String hot = "hot";
+        String cold = collidingOnlyInFirstRow(sketch, hot);
+
+        sketch.add(hot, 10);
+        sketch.add(cold, 1);
+
+        // A plain count-min sketch would have raised the shared counter to 11
+        assertThat(sketch.estimate(hot)).isEqualTo(10);
+        assertThat(sketch.estimate(cold)).isEqualTo(1);
+        // The shared counter (10) already covers cold's new estimate, so it was not raised
+        sketch.add(cold, 8);
+        assertThat(sketch.estimate(hot)).isEqualTo(10);
+        assertThat(sketch.estimate(cold)).isEqualTo(9);
+    }
+
+    @Test
+    void halvesEveryCounterOnceTheSampleIsFull() {
+        FrequencySketch sketch = new FrequencySketch(16);
+        int sampleSize = 10 * sketch.getWidth();
+
+        sketch.add("london", 100);
+        sketch.add("paris", 31);
+        assertThat(sketch.estimate("london")).isEqualTo(100);
+
+        // Fill the sample with keys that are each seen once
+        for (int i = 0; i < sampleSize - 131; i++) {
+            sketch.increment("other-" + i);
+        }
+
+        assertThat(sketch.estimate("london")).isEqualTo(50);
+        assertThat(sketch.estimate("paris")).isEqualTo(15);
+    }
+
+    @Test
+    void saturatesInsteadOfOverflowing() {
+        FrequencySketch sketch = new FrequencySketch(100_000);
+
+        sketch.add("london", FrequencySketch.MAX_COUNT);
+        sketch.add("london", 10);
+
+        assertThat(sketch.estimate("london")).isEqualTo(FrequencySketch.MAX_COUNT);
+    }
+
+    @Test
+    void concurrentIncrementsOfDifferentKeysAreNotLost() throws InterruptedException {
+        FrequencySketch sketch = new FrequencySketch(100_000);
+        int threads = 8;
+        int increments = 1000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            String key = "location-" + t;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < increments; i++) {
+                    sketch.increment(key);
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        // Keys sharing a word are updated with compare-and-set, so neither overwrites the other
+        for (int t = 0; t < threads; t++) {
+            assertThat(sketch.estimate("location-" + t)).isEqualTo(increments);
+        }
+    }
+
+    // A key whose counter matches the given key's in the first row and in no other
+    private static String collidingOnlyInFirstRow(FrequencySketch sketch, String key) {
+        for (int i = 0; ; i++) {
+            String candidate = "key-" + i;
+            if (sketch.counterIndex(candidate, 0) == sketch.counterIndex(key, 0)
+                    && sketch.counterIndex(candidate, 1) != sketch.counterIndex(key, 1)
+                    && sketch.counterIndex(candidate, 2) != sketch.counterIndex(key, 2)
+                    && sketch.counterIndex(candidate, 3) != sketch.counterIndex(key, 3)) {
+                return candidate;
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.weatherapi.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class GeohashTest {
+
+    @Test
+    void encodesKnownPointsAtEveryPrecision() {
+        assertThat(Geohash.encode(57.64911, 10.40744, 11)).isEqualTo("u4pruydqqvj");
+        assertThat(Geohash.encode(51.5074, -0.1278, 5)).isEqualTo("gcpvj");
+        assertThat(Geohash.encode(51.5074, -0.1278, 1)).isEqualTo("g");
+        assertThat(Geohash.encode(51.5074, -0.1278, Geohash.MAX_PRECISION)).hasSize(12).startsWith("gcpvj");
+    }
+
+    @Test
+    void theCenterOfAPointsCellIsWithinHalfACellOfIt() {
+        // Precision 5 cells are 0.044 degrees of latitude by 0.044 of longitude
+        double[] center = Geohash.center(Geohash.encode(51.5074, -0.1278, 5));
+
+        assertThat(center[0]).isCloseTo(51.5074, within(0.022));
+        assertThat(center[1]).isCloseTo(-0.1278, within(0.022));
+        assertThat(Geohash.encode(center[0], center[1], 5)).isEqualTo("gcpvj");
+    }
+
+    @Test
+    void invalidHashesHaveNoCenter() {
+        assertThat(Geohash.center("")).isNull();
+        assertThat(Geohash.center("gcpva")).isNull();
+        assertThat(Geohash.center("gcpvjgcpvjgcpvj")).isNull();
+    }
+
+    @Test
+    void measuresGreatCircleDistances() {
+        assertThat(Geohash.distanceKm(51.5074, -0.1278, 48.8566, 2.3522)).isCloseTo(343.5, within(1.0));
+        assertThat(Geohash.distanceKm(10, 20, 10, 20)).isZero();
+    }
+}
@@ -0,0 +1,79 @@
+package com.weatherapi.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocationKeyResolverTest {
+
+    private final LocationKeyResolver locationKeys = new LocationKeyResolver(1000, 5);
+
+    @Test
+    void normalizesCaseWhitespaceAndCommas() {
+        assertThat(locationKeys.normalize("  New   York , US ")).isEqualTo("new york,us");
+        assertThat(locationKeys.resolve("London")).isEqualTo("london");
+    }
+
+    @Test
+    void coordinatesInOneCellShareAKeyAndNeighbouringCellsDoNot() {
+        String london = locationKeys.resolve("51.5074,-0.1278");
+
+        assertThat(london).isEqualTo("gh:gcpvj");
+        assertThat(locationKeys.resolve("51.5080, -0.0950")).isEqualTo(london);
+        assertThat(locationKeys.resolve("51.5074,-0.08")).isEqualTo("gh:gcpvn");
+        assertThat(locationKeys.resolve("51.5074,-0.15")).isEqualTo("gh:gcpvh");
+    }
+
+    @Test
+    void theUpstreamQueryOfACellIsItsCenter() {
+        String fromKey = locationKeys.upstreamQuery("gh:gcpvj");
+
+        assertThat(locationKeys.upstreamQuery("51.5074,-0.1278")).isEqualTo(fromKey);
+        assertThat(locationKeys.upstreamQuery("51.5080, -0.0950")).isEqualTo(fromKey);
+        assertThat(locationKeys.upstreamQuery("London")).isEqualTo("London");
+    }
+
+    @Test
+    void aResolvedQueryAndItsNameAndCountryAliasTheCell() {
+        String canonical = locationKeys.register("London ", "London", "GB", 51.5074, -0.1278);
+
+        assertThat(canonical).isEqualTo("gh:gcpvj");
+        assertThat(locationKeys.resolve("london")).isEqualTo(canonical);
+        assertThat(locationKeys.resolve("London, GB")).isEqualTo(canonical);
+        assertThat(locationKeys.resolve("51.51,-0.12")).isEqualTo(canonical);
+    }
+
+    @Test
+    void placesWithoutCoordinatesRegisterNoAlias() {
+        assertThat(locationKeys.register("Atlantis", "Atlantis", "XX", null, 0.0)).isNull();
+
+        assertThat(locationKeys.resolve("Atlantis, XX")).isEqualTo("atlantis,xx");
+        assertThat(locationKeys.getAliasCount()).isZero();
+    }
+
+    @Test
+    void aNameSharedByDistinctPlacesInOneCountryIsNotAliased() {
+        locationKeys.register(null, "Springfield", "US", 39.80, -89.64);
+        locationKeys.register(null, "Springfield", "US", 37.21, -93.29);
+        locationKeys.register(null, "Springfield", "US", 39.80, -89.64);
+
+        assertThat(locationKeys.resolve("Springfield, US")).isEqualTo("springfield,us");
+    }
+
+    @Test
+    void aPlaceReportedInANearbyCellKeepsItsFirstCell() {
+        String first = locationKeys.register(null, "London", "GB", 51.5074, -0.1278);
+        locationKeys.register(null, "London", "GB", 51.5074, -0.08);
+
+        assertThat(locationKeys.resolve("London, GB")).isEqualTo(first);
+    }
+
+    @Test
+    void aQueryAliasFollowsWhereUpstreamLastResolvedIt() {
+        locationKeys.register("Springfield", "Springfield", "US", 39.80, -89.64);
+        String second = locationKeys.register("Springfield", "Springfield", "US", 37.21, -93.29);
+
+        assertThat(locationKeys.resolve("Springfield")).isEqualTo(second);
+        assertThat(locationKeys.resolve("Springfield, US")).isEqualTo("springfield,us");
+    }
+}
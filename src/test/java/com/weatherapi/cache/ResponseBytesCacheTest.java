@@ -0,0 +1,117 @@
+package com.weatherapi.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.weatherapi.model.LocationData;
+import com.weatherapi.model.WeatherData;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseBytesCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final TieredCaffeineCache cache = new TieredCaffeineCache("weather", Caffeine.newBuilder().buildAsync(),
+            false, Duration.ofMinutes(10), null, null, null);
+    private final SimpleCacheManager cacheManager = new SimpleCacheManager();
+
+    ResponseBytesCacheTest() {
+        cacheManager.setCaches(List.of(cache));
+        cacheManager.afterPropertiesSet();
+    }
+
+    @Test
+    void theTagDependsOnTheDataNotOnHowTheBodyWasBuilt() {
+        Map<String, Object> london = Map.of("name", "London", "temperature", 12.5);
+        cache.put("london", london);
+
+        String cached = etag(new ResponseBytesCache(objectMapper, cacheManager, true, 1000)
+                .respond("weather", "london", london, new HttpHeaders()));
+        String rebuilt = etag(new ResponseBytesCache(objectMapper, cacheManager, true, 1000)
+                .respond("weather", "london", london, new HttpHeaders()));
+        String disabled = etag(new ResponseBytesCache(objectMapper, cacheManager, false, 1000)
+                .respond("weather", "london", london, new HttpHeaders()));
+        String notStored = etag(new ResponseBytesCache(objectMapper, cacheManager, true, 1000)
+                .respond("weather", "paris", london, new HttpHeaders()));
+
+        assertThat(rebuilt).isEqualTo(cached);
+        assertThat(disabled).isEqualTo(cached);
+        assertThat(notStored).isEqualTo(cached);
+    }
+
+    @Test
+    void revalidatesWithATagFromEitherPath() {
+        Map<String, Object> london = Map.of("name", "London", "temperature", 12.5);
+        cache.put("london", london);
+        String etag = etag(new ResponseBytesCache(objectMapper, cacheManager, true, 1000)
+                .respond("weather", "london", london, new HttpHeaders()));
+
+        HttpHeaders request = new HttpHeaders();
+        request.setIfNoneMatch(etag);
+        ResponseEntity<?> disabled = new ResponseBytesCache(objectMapper, cacheManager, false, 1000)
+                .respond("weather", "london", london, request);
+
+        assertThat(disabled.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(disabled.getBody()).isNull();
+    }
+
+    @Test
+    void changedDataChangesTheTag() {
+        ResponseBytesCache responses = new ResponseBytesCache(objectMapper, cacheManager, true, 1000);
+        cache.put("london", Map.of("name", "London", "temperature", 12.5));
+        String before = etag(responses.respond("weather", "london", cache.peek("london"), new HttpHeaders()));
+
+        cache.put("london", Map.of("name", "London", "temperature", 13.0));
+        String after = etag(responses.respond("weather", "london", cache.peek("london"), new HttpHeaders()));
+
+        assertThat(after).isNotEqualTo(before);
+    }
+
+    @Test
+    void fallbackDataIsNeverStoredOrTagged() {
+        cache.put("london", Map.of("name", "London", "temperature", 12.5));
+        WeatherData fallback = new WeatherData();
+        fallback.setSources(List.of(WeatherData.FALLBACK_SOURCE));
+
+        ResponseEntity<?> response = new ResponseBytesCache(objectMapper, cacheManager, true, 1000)
+                .respond("weather", "london", fallback, new HttpHeaders());
+
+        assertThat(response.getHeaders().getCacheControl()).isEqualTo("no-store");
+        assertThat(response.getHeaders().getETag()).isNull();
+        assertThat(new String((byte[]) response.getBody())).contains(WeatherData.FALLBACK_SOURCE);
+    }
+
+    @Test
+    void fallbackPlacesAreNeverStoredOrTagged() {
+        TieredCaffeineCache locationsCache = new TieredCaffeineCache("locations", Caffeine.newBuilder().buildAsync(),
+                false, Duration.ofHours(1), null, null, null);
+        SimpleCacheManager locationsManager = new SimpleCacheManager();
+        locationsManager.setCaches(List.of(locationsCache));
+        locationsManager.afterPropertiesSet();
+
+        LocationData.Location mock = new LocationData.Location();
+        mock.setName("Atlantis");
+        mock.setSource(WeatherData.FALLBACK_SOURCE);
+        LocationData fallback = new LocationData();
+        fallback.setLocations(List.of(mock));
+        fallback.setCount(1);
+        locationsCache.put("atlantis", fallback);
+
+        ResponseEntity<?> response = new ResponseBytesCache(objectMapper, locationsManager, true, 1000)
+                .respond("locations", "atlantis", fallback, new HttpHeaders());
+
+        assertThat(response.getHeaders().getCacheControl()).isEqualTo("no-store");
+        assertThat(response.getHeaders().getETag()).isNull();
+    }
+
+    private static String etag(ResponseEntity<?> response) {
+        return response.getHeaders().getETag();
+    }
+}
@@ -0,0 +1,111 @@
+package com.weatherapi.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UpstreamCallsTest {
+
+    private final UpstreamCalls upstreamCalls = new UpstreamCalls(new MockEnvironment(), new SimpleMeterRegistry());
+
+    UpstreamCallsTest() {
+        ReflectionTestUtils.setField(upstreamCalls, "defaultDeadlineMs", 1000L);
+        ReflectionTestUtils.setField(upstreamCalls, "hedgingEnabled", false);
+        ReflectionTestUtils.setField(upstreamCalls, "breakerFailureThreshold", 3);
+        ReflectionTestUtils.setField(upstreamCalls, "breakerOpenSeconds", 30L);
+        ReflectionTestUtils.setField(upstreamCalls, "initialConcurrencyLimit", 10);
+        ReflectionTestUtils.setField(upstreamCalls, "minConcurrencyLimit", 1);
+        ReflectionTestUtils.setField(upstreamCalls, "maxConcurrencyLimit", 10);
+    }
+
+    @Test
+    void anUnknownLocationLeavesTheCircuitClosed() {
+        failRepeatedly(HttpStatus.NOT_FOUND);
+        failRepeatedly(HttpStatus.BAD_REQUEST);
+
+        assertThat(circuit()).isEqualTo("CLOSED");
+    }
+
+    @Test
+    void aRejectedKeyOpensTheCircuit() {
+        failRepeatedly(HttpStatus.UNAUTHORIZED);
+
+        assertThat(circuit()).isEqualTo("OPEN");
+    }
+
+    @Test
+    void aForbiddenKeyOpensTheCircuit() {
+        failRepeatedly(HttpStatus.FORBIDDEN);
+
+        assertThat(circuit()).isEqualTo("OPEN");
+    }
+
+    @Test
+    void noHedgeIsSentWithoutAFreePermit() {
+        enableHedging(1);
+        AtomicInteger sent = new AtomicInteger();
+
+        String answer = upstreamCalls.call("openweather", "current", () -> {
+            sent.incrementAndGet();
+            return Mono.just("slow").delayElement(Duration.ofMillis(100));
+        }).block();
+
+        assertThat(answer).isEqualTo("slow");
+        assertThat(sent).hasValue(1);
+        assertThat(providerStats().get("inFlight")).isEqualTo(0);
+    }
+
+    @Test
+    void aHedgeReleasesItsPermit() {
+        enableHedging(2);
+        AtomicInteger sent = new AtomicInteger();
+
+        String answer = upstreamCalls.call("openweather", "current", () -> sent.incrementAndGet() == 1
+                ? Mono.<String>never()
+                : Mono.just("hedge")).block();
+
+        assertThat(answer).isEqualTo("hedge");
+        assertThat(sent).hasValue(2);
+        assertThat(providerStats().get("inFlight")).isEqualTo(0);
+    }
+
+    // Enough fast calls for the operation to have a p95, so the next call hedges after the minimum delay
+    private void enableHedging(int concurrencyLimit) {
+        ReflectionTestUtils.setField(upstreamCalls, "hedgingEnabled", true);
+        ReflectionTestUtils.setField(upstreamCalls, "minHedgeDelayMs", 10L);
+        ReflectionTestUtils.setField(upstreamCalls, "minHedgeSamples", 16L);
+        ReflectionTestUtils.setField(upstreamCalls, "initialConcurrencyLimit", concurrencyLimit);
+        ReflectionTestUtils.setField(upstreamCalls, "maxConcurrencyLimit", concurrencyLimit);
+        for (int i = 0; i < 16; i++) {
+            upstreamCalls.call("openweather", "current", () -> Mono.just("fast")).block();
+        }
+    }
+
+    private void failRepeatedly(HttpStatus status) {
+        for (int i = 0; i < 3; i++) {
+            upstreamCalls.call("openweather", "current",
+                            () -> Mono.error(WebClientResponseException.create(status.value(), status.name(),
+                                    null, null, null)))
+                    .onErrorResume(e -> Mono.empty())
+                    .block();
+        }
+    }
+
+    private String circuit() {
+        return (String) providerStats().get("circuit");
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> providerStats() {
+        return (Map<String, Object>) upstreamCalls.getProviderStats().get("openweather");
+    }
+}
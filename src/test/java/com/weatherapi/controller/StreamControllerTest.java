@@ -0,0 +1,73 @@
+package com.weatherapi.controller;
+
+import com.weatherapi.model.BatchResponse;
+import com.weatherapi.service.WeatherBatchService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import reactor.core.publisher.Flux;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class StreamControllerTest {
+
+    private final WeatherBatchService weatherBatchService = mock(WeatherBatchService.class);
+    private final MockMvc mockMvc;
+
+    StreamControllerTest() {
+        when(weatherBatchService.getMaxLocations()).thenReturn(10);
+        // One element per location the controller asked for
+        when(weatherBatchService.streamCurrentWeather(anyList())).thenAnswer(invocation -> Flux
+                .fromIterable(invocation.<List<String>>getArgument(0))
+                .map(location -> BatchResponse.Item.success(location, "ok")));
+        when(weatherBatchService.streamForecast(anyList(), anyInt())).thenAnswer(invocation -> Flux
+                .fromIterable(invocation.<List<String>>getArgument(0))
+                .map(location -> BatchResponse.Item.success(location, "ok")));
+
+        mockMvc = MockMvcBuilders.standaloneSetup(new StreamController(weatherBatchService, null, null)).build();
+    }
+
+    @Test
+    void aPlaceWithItsCountryIsOneLocation() throws Exception {
+        assertThat(events("/weather/current/stream?location=London,GB"))
+                .containsExactly("{\"location\":\"London,GB\",\"status\":\"success\",\"data\":\"ok\",\"error\":null}");
+    }
+
+    @Test
+    void aCoordinatePairIsOneLocation() throws Exception {
+        assertThat(events("/weather/forecast/stream?location=51.5074,-0.1278&days=3"))
+                .hasSize(1).first().asString().contains("\"location\":\"51.5074,-0.1278\"");
+    }
+
+    @Test
+    void repeatedParametersAreSeparateLocations() throws Exception {
+        assertThat(events("/weather/current/stream?location=London,GB&location=Paris")).hasSize(2);
+    }
+
+    @Test
+    void aMissingLocationIsRejected() throws Exception {
+        mockMvc.perform(get("/weather/current/stream").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    private List<String> events(String uri) throws Exception {
+        MvcResult started = mockMvc.perform(get(uri).accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return body.lines().filter(line -> !line.isBlank()).toList();
+    }
+}
@@ -0,0 +1,60 @@
+package com.weatherapi.provider;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class AggregationStrategyTest {
+
+    private static final double[] EQUAL = {1, 1, 1, 1};
+
+    @Test
+    void meanAveragesEveryValue() {
+        assertThat(AggregationStrategy.MEAN.combine(new double[] {10, 14, 18}, EQUAL)).isEqualTo(14.0);
+    }
+
+    @Test
+    void medianTakesTheMiddleValueOrTheMeanOfTheTwoMiddleOnes() {
+        assertThat(AggregationStrategy.MEDIAN.combine(new double[] {30, 10, 12}, EQUAL)).isEqualTo(12.0);
+        assertThat(AggregationStrategy.MEDIAN.combine(new double[] {30, 10, 12, 14}, EQUAL)).isEqualTo(13.0);
+    }
+
+    @Test
+    void medianIgnoresAnOutlier() {
+        double mean = AggregationStrategy.MEAN.combine(new double[] {12, 13, 40}, EQUAL);
+        double median = AggregationStrategy.MEDIAN.combine(new double[] {12, 13, 40}, EQUAL);
+
+        assertThat(median).isEqualTo(13.0);
+        assertThat(mean).isGreaterThan(20.0);
+    }
+
+    @Test
+    void weightedLeansTowardsTheMoreReliableReading() {
+        double combined = AggregationStrategy.WEIGHTED.combine(new double[] {10, 20}, new double[] {0.9, 0.1});
+
+        assertThat(combined).isCloseTo(11.0, within(1e-9));
+    }
+
+    @Test
+    void aSingleValueIsReturnedAsIs() {
+        for (AggregationStrategy strategy : AggregationStrategy.values()) {
+            assertThat(strategy.combine(new double[] {7.5}, new double[] {0.3})).isEqualTo(7.5);
+        }
+    }
+
+    @Test
+    void firstNAveragesTheReadingsItWasGiven() {
+        assertThat(AggregationStrategy.FIRST_N.combine(new double[] {10, 20}, EQUAL)).isEqualTo(15.0);
+    }
+
+    @Test
+    void parsesThePropertyFormAndRejectsUnknownNames() {
+        assertThat(AggregationStrategy.from(" first-n ")).isEqualTo(AggregationStrategy.FIRST_N);
+        assertThat(AggregationStrategy.from("Median")).isEqualTo(AggregationStrategy.MEDIAN);
+        assertThatThrownBy(() -> AggregationStrategy.from("mode"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("weather.aggregation.strategy");
+    }
+}
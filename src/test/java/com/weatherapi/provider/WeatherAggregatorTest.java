@@ -0,0 +1,145 @@
+package com.weatherapi.provider;
+
+import com.weatherapi.client.UpstreamCalls;
+import com.weatherapi.model.WeatherData;
+import com.weatherapi.ratelimit.UpstreamRateLimiter;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WeatherAggregatorTest {
+
+    @Test
+    void combinesEveryReadingWithTheConfiguredStrategy() {
+        WeatherData result = aggregate("mean",
+                provider("a", reading("A", 10.0, 60, 51.5, -0.12)),
+                provider("b", reading("B", 14.0, 70, 51.5, -0.12)));
+
+        assertThat(result.getCurrent().getTemperature()).isEqualTo(12.0);
+        assertThat(result.getCurrent().getHumidity()).isEqualTo(65);
+        assertThat(result.getSources()).containsExactly("A", "B");
+        assertThat(result.isFallback()).isFalse();
+    }
+
+    @Test
+    void medianOfPartialReadingsLeavesTheFailedProviderOut() {
+        WeatherData result = aggregate("median",
+                provider("a", reading("A", 10.0, 60, 51.5, -0.12)),
+                provider("b", Mono.error(new IllegalStateException("timeout"))),
+                provider("c", reading("C", 11.0, 64, 51.5, -0.12)),
+                provider("d", reading("D", 30.0, 90, 51.5, -0.12)));
+
+        assertThat(result.getCurrent().getTemperature()).isEqualTo(11.0);
+        assertThat(result.getCurrent().getHumidity()).isEqualTo(64);
+        assertThat(result.getSources()).containsExactly("A", "C", "D");
+    }
+
+    @Test
+    void oneAnsweringProviderIsServedAsIs() {
+        WeatherData only = reading("A", 10.0, 60, 51.5, -0.12).block();
+
+        for (String strategy : List.of("mean", "median", "weighted")) {
+            WeatherData result = aggregate(strategy,
+                    provider("a", Mono.just(only)),
+                    provider("b", Mono.error(new IllegalStateException("down"))));
+
+            assertThat(result).isSameAs(only);
+        }
+    }
+
+    @Test
+    void aFieldMissingFromAReadingIsCombinedFromTheOthers() {
+        Mono<WeatherData> missing = reading("A", null, null, null, null);
+
+        for (String strategy : List.of("mean", "median", "weighted")) {
+            WeatherData result = aggregate(strategy,
+                    provider("a", missing),
+                    provider("b", reading("B", 14.0, 70, 48.85, 2.35)));
+
+            assertThat(result.getCurrent().getTemperature()).isEqualTo(14.0);
+            assertThat(result.getCurrent().getHumidity()).isEqualTo(70);
+            assertThat(result.getLocation().getLat()).isEqualTo(48.85);
+            assertThat(result.getSources()).containsExactly("A", "B");
+        }
+    }
+
+    @Test
+    void aFieldMissingFromEveryReadingStaysNull() {
+        WeatherData result = aggregate("weighted",
+                provider("a", reading("A", null, 60, null, null)),
+                provider("b", reading("B", null, 70, null, null)));
+
+        assertThat(result.getCurrent().getTemperature()).isNull();
+        assertThat(result.getCurrent().getHumidity()).isEqualTo(65);
+        assertThat(result.getLocation().getLat()).isNull();
+    }
+
+    @Test
+    void everyProviderFailingYieldsTheFallback() {
+        for (String strategy : List.of("mean", "median", "weighted", "first-n")) {
+            WeatherData result = aggregate(strategy,
+                    provider("a", Mono.error(new IllegalStateException("down"))),
+                    provider("b", Mono.error(new IllegalStateException("down"))));
+
+            assertThat(result.isFallback()).isTrue();
+            assertThat(result.getSources()).containsExactly(WeatherData.FALLBACK_SOURCE);
+        }
+    }
+
+    @Test
+    void firstNDoesNotWaitForTheSlowProvider() {
+        WeatherData result = aggregate("first-n",
+                provider("slow", Mono.never()),
+                provider("fast", reading("Fast", 10.0, 60, 51.5, -0.12)));
+
+        assertThat(result.getSources()).containsExactly("Fast");
+    }
+
+    private static WeatherData aggregate(String strategy, WeatherProvider... providers) {
+        UpstreamCalls upstreamCalls = mock(UpstreamCalls.class);
+        when(upstreamCalls.call(any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<Mono<?>>>getArgument(2).get());
+
+        WeatherAggregator aggregator = new WeatherAggregator(List.of(providers), upstreamCalls,
+                new UpstreamRateLimiter(provider -> null), strategy);
+        ReflectionTestUtils.setField(aggregator, "firstN", 1);
+        return aggregator.aggregate("London").block();
+    }
+
+    private static WeatherProvider provider(String name, Mono<WeatherData> response) {
+        return new WeatherProvider() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getDisplayName() {
+                return name;
+            }
+
+            @Override
+            public Mono<WeatherData> fetchCurrentWeather(String location) {
+                return response;
+            }
+        };
+    }
+
+    private static Mono<WeatherData> reading(String source, Double temperature, Integer humidity,
+                                             Double lat, Double lon) {
+        WeatherData data = Readings.blank(source);
+        data.getLocation().setName("London");
+        data.getLocation().setLat(lat);
+        data.getLocation().setLon(lon);
+        data.getCurrent().setTemperature(temperature);
+        data.getCurrent().setHumidity(humidity);
+        return Mono.just(data);
+    }
+}
@@ -0,0 +1,87 @@
+package com.weatherapi.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private static final long INTERVAL = 1_000;
+    private static final long START = 1_000_000;
+
+    @Test
+    void grantsTheBurstThenRejects() {
+        TokenBucket bucket = new TokenBucket(3, INTERVAL);
+
+        assertThat(bucket.tryAcquire(START)).isEqualTo(new RateLimitDecision(true, 2, Duration.ZERO));
+        assertThat(bucket.tryAcquire(START)).isEqualTo(new RateLimitDecision(true, 1, Duration.ZERO));
+        assertThat(bucket.tryAcquire(START)).isEqualTo(new RateLimitDecision(true, 0, Duration.ZERO));
+
+        RateLimitDecision rejected = bucket.tryAcquire(START);
+        assertThat(rejected.allowed()).isFalse();
+        assertThat(rejected.remaining()).isZero();
+        assertThat(rejected.retryAfter()).isEqualTo(Duration.ofNanos(INTERVAL));
+    }
+
+    @Test
+    void refillsOnePermitPerInterval() {
+        TokenBucket bucket = new TokenBucket(2, INTERVAL);
+        bucket.tryAcquire(START);
+        bucket.tryAcquire(START);
+
+        RateLimitDecision early = bucket.tryAcquire(START + INTERVAL / 2);
+        assertThat(early.allowed()).isFalse();
+        assertThat(early.retryAfter()).isEqualTo(Duration.ofNanos(INTERVAL / 2));
+
+        assertThat(bucket.tryAcquire(START + INTERVAL).allowed()).isTrue();
+        assertThat(bucket.tryAcquire(START + INTERVAL).allowed()).isFalse();
+        assertThat(bucket.remaining(START + 3 * INTERVAL)).isEqualTo(2);
+    }
+
+    @Test
+    void idleTimeNeverBuildsMoreThanTheBurst() {
+        TokenBucket bucket = new TokenBucket(2, INTERVAL);
+        bucket.tryAcquire(START);
+
+        long later = START + 1_000 * INTERVAL;
+        assertThat(bucket.remaining(later)).isEqualTo(2);
+        assertThat(bucket.tryAcquire(later).allowed()).isTrue();
+        assertThat(bucket.tryAcquire(later).allowed()).isTrue();
+        assertThat(bucket.tryAcquire(later).allowed()).isFalse();
+    }
+
+    @Test
+    void concurrentCallersShareOneBurst() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(100, INTERVAL);
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 1_000; i++) {
+                    if (bucket.tryAcquire(START).allowed()) {
+                        granted.incrementAndGet();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(granted.get()).isEqualTo(100);
+    }
+}
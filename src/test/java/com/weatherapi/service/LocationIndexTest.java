@@ -0,0 +1,93 @@
+package com.weatherapi.service;
+
+import com.weatherapi.cache.LocationKeyResolver;
+import com.weatherapi.model.LocationData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocationIndexTest {
+
+    private final LocationKeyResolver locationKeys = new LocationKeyResolver(1000, 5);
+
+    @Test
+    void aNarrowerSearchDoesNotAnswerABroaderOne() {
+        LocationIndex index = new LocationIndex(locationKeys, 10, 1000, 1000, "");
+        index.addResults("Paris, US", List.of(place("Paris", "US", 33.66, -95.56)));
+
+        assertThat(index.search("Paris")).isEmpty();
+        assertThat(index.search("Paris, US")).extracting(LocationData.Location::getCountry).containsExactly("US");
+    }
+
+    @Test
+    void geocodingResultsComeFirstFollowedByOtherIndexedPlaces() {
+        LocationIndex index = new LocationIndex(locationKeys, 10, 1000, 1000, "");
+        index.addResults("Paris, US", List.of(place("Paris", "US", 33.66, -95.56)));
+
+        List<LocationData.Location> merged = index.addResults("Paris", List.of(
+                place("Paris", "FR", 48.85, 2.35), place("Paris", "US", 33.66, -95.56)));
+
+        assertThat(merged).extracting(LocationData.Location::getCountry).containsExactly("FR", "US");
+        assertThat(index.search("Paris")).hasSize(2);
+    }
+
+    @Test
+    void searchesWithoutResultsAreNotRemembered() {
+        LocationIndex index = new LocationIndex(locationKeys, 10, 1000, 1000, "");
+        index.addResults("Paris, US", List.of(place("Paris", "US", 33.66, -95.56)));
+
+        assertThat(index.addResults("Paris", List.of())).hasSize(1);
+        assertThat(index.search("Paris")).isEmpty();
+    }
+
+    @Test
+    void aLoadedGazetteerAnswersAnyPrefix(@TempDir Path dir) throws IOException {
+        Path gazetteer = Files.writeString(dir.resolve("places.csv"), "Paris,FR,48.85,2.35\nParis,US,33.66,-95.56\n");
+        // max-places only bounds what geocoding teaches the index, not the gazetteer
+        LocationIndex index = new LocationIndex(locationKeys, 10, 1, 1000, gazetteer.toString());
+
+        assertThat(index.isGazetteerLoaded()).isTrue();
+        assertThat(index.search("Par")).hasSize(2);
+        assertThat(index.search("Lyon")).isEmpty();
+    }
+
+    @Test
+    void learnsAtMostMaxPlacesAndForgetsQueriesItCouldNotIndexFully() {
+        LocationIndex index = new LocationIndex(locationKeys, 10, 2, 1000, "");
+        index.addResults("Paris, FR", List.of(place("Paris", "FR", 48.85, 2.35)));
+        index.addResults("Paris, US", List.of(place("Paris", "US", 33.66, -95.56)));
+
+        List<LocationData.Location> merged = index.addResults("Paris",
+                List.of(place("Paris", "FR", 48.85, 2.35), place("Paris", "CA", 43.20, -80.38)));
+
+        assertThat(index.getSize()).isEqualTo(2);
+        assertThat(merged).extracting(LocationData.Location::getCountry).containsExactly("FR", "CA", "US");
+        assertThat(index.search("Paris")).isEmpty();
+        assertThat(index.search("Paris, US")).hasSize(1);
+    }
+
+    @Test
+    void remembersAtMostMaxQueries() {
+        LocationIndex index = new LocationIndex(locationKeys, 10, 1000, 5, "");
+        for (int i = 0; i < 50; i++) {
+            index.addResults("Place " + i, List.of(place("Place " + i, "FR", 45.0 + i * 0.1, 2.0)));
+        }
+
+        assertThat(index.getResolvedQueryCount()).isLessThanOrEqualTo(5);
+        assertThat(index.getSize()).isEqualTo(50);
+    }
+
+    private static LocationData.Location place(String name, String country, double lat, double lon) {
+        LocationData.Location location = new LocationData.Location();
+        location.setName(name);
+        location.setCountry(country);
+        location.setLat(lat);
+        location.setLon(lon);
+        return location;
+    }
+}
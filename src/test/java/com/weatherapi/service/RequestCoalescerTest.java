@@ -0,0 +1,138 @@
+package com.weatherapi.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RequestCoalescerTest {
+
+    private static final int CALLERS = 8;
+
+    private final RequestCoalescer coalescer = new RequestCoalescer();
+    private final ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+
+    @AfterEach
+    void shutDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        List<Future<String>> results = callAll(() -> {
+            loads.incrementAndGet();
+            await(release);
+            return "london";
+        });
+        awaitCoalesced(CALLERS - 1);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("london");
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(coalescer.getFetchCount("weather")).isEqualTo(1);
+    }
+
+    @Test
+    void everyWaiterSeesTheLoadersException() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = callAll(() -> {
+            await(release);
+            throw new IllegalStateException("upstream down");
+        });
+        awaitCoalesced(CALLERS - 1);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .cause().isInstanceOf(IllegalStateException.class).hasMessage("upstream down");
+        }
+    }
+
+    @Test
+    void anErrorInTheLoaderReleasesTheWaiters() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = callAll(() -> {
+            await(release);
+            throw new AssertionError("loader bug");
+        });
+        awaitCoalesced(CALLERS - 1);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .cause().isInstanceOf(AssertionError.class);
+        }
+        assertThat(coalescer.getStats()).extracting("weather").hasFieldOrPropertyWithValue("inFlight", 0L);
+    }
+
+    @Test
+    void theSharedReactiveFetchSurvivesTheLeadingSubscriberCancelling() {
+        Sinks.One<String> upstream = Sinks.one();
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<Mono<String>> loader = () -> {
+            loads.incrementAndGet();
+            return upstream.asMono();
+        };
+
+        Disposable leader = coalescer.executeReactive("weather", "london", loader).subscribe();
+        Mono<String> follower = coalescer.executeReactive("weather", "london", loader);
+        leader.dispose();
+
+        Mono<String> result = follower.cache();
+        result.subscribe();
+        upstream.tryEmitValue("london");
+
+        assertThat(result.block(Duration.ofSeconds(5))).isEqualTo("london");
+        assertThat(loads).hasValue(1);
+        assertThat(coalescer.getCoalescedCount("weather")).isEqualTo(1);
+    }
+
+    private List<Future<String>> callAll(Supplier<String> loader) {
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(callers.submit(() -> coalescer.execute("weather", "london", loader)));
+        }
+        return results;
+    }
+
+    private void awaitCoalesced(long count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (coalescer.getCoalescedCount("weather") < count) {
+            assertThat(System.nanoTime()).as("callers joining the load").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.weatherapi.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.weatherapi.cache.CacheRefresher;
+import com.weatherapi.cache.CachedForecast;
+import com.weatherapi.cache.LocationKeyResolver;
+import com.weatherapi.cache.TieredCaffeineCache;
+import com.weatherapi.client.UpstreamCalls;
+import com.weatherapi.model.ForecastData;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WeatherServiceTest {
+
+    private final UpstreamCalls upstreamCalls = mock(UpstreamCalls.class);
+    private final LocationKeyResolver locationKeys = new LocationKeyResolver(1000, 5);
+    private final CacheRefresher cacheRefresher = new CacheRefresher();
+    private final TieredCaffeineCache forecastCache = new TieredCaffeineCache("forecast",
+            Caffeine.newBuilder().buildAsync(), false, Duration.ofMinutes(30), null, null, null);
+    // Every hit is past its soft TTL and triggers a refresh
+    private final TieredCaffeineCache refreshingCache = new TieredCaffeineCache("forecast",
+            Caffeine.newBuilder().buildAsync(), false, Duration.ofMinutes(30), Duration.ZERO, cacheRefresher, null);
+    private final WeatherService weatherService = weatherService(forecastCache);
+
+    private WeatherService weatherService(TieredCaffeineCache cache) {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(cache));
+        cacheManager.afterPropertiesSet();
+
+        return new WeatherService(WebClient.create(), new RequestCoalescer(), cacheRefresher,
+                locationKeys, cacheManager, null, upstreamCalls, null);
+    }
+
+    @Test
+    void aShorterRangeIsSlicedFromTheCachedWiderOne() {
+        upstreamReturns(Mono.just(forecast(7)));
+
+        weatherService.getForecast("London", 7);
+        ForecastData shorter = weatherService.getForecast("London", 3);
+
+        assertThat(shorter.getForecast()).extracting(ForecastData.ForecastDay::getDate)
+                .containsExactly("2026-10-01", "2026-10-02", "2026-10-03");
+        verifyUpstreamCalls(1);
+    }
+
+    @Test
+    void theReactivePathSlicesTheCachedEntryToo() {
+        upstreamReturns(Mono.just(forecast(7)));
+
+        weatherService.getForecastReactive("London", 7).block();
+        ForecastData shorter = weatherService.getForecastReactive("London", 2).block();
+
+        assertThat(shorter.getForecast()).hasSize(2);
+        verifyUpstreamCalls(1);
+    }
+
+    @Test
+    void aLongerRangeWidensTheEntryWithOneFetch() {
+        upstreamReturns(Mono.just(forecast(3)), Mono.just(forecast(7)));
+
+        weatherService.getForecast("London", 3);
+        assertThat(weatherService.getForecast("London", 7).getForecast()).hasSize(7);
+        assertThat(weatherService.getForecast("London", 5).getForecast()).hasSize(5);
+
+        verifyUpstreamCalls(2);
+        assertThat(forecastCache.get(locationKeys.resolve("London"), CachedForecast.class).getRequestedDays()).isEqualTo(7);
+    }
+
+    @Test
+    void aFailedWideningReturnsTheFallbackWithoutReplacingTheCachedEntry() {
+        upstreamReturns(Mono.just(forecast(3)), Mono.error(new IllegalStateException("upstream down")));
+
+        weatherService.getForecast("London", 3);
+        ForecastData widened = weatherService.getForecast("London", 7);
+        ForecastData again = weatherService.getForecast("London", 3);
+
+        assertThat(widened.isFallback()).isTrue();
+        assertThat(widened.getForecast()).hasSize(7);
+        assertThat(again.isFallback()).isFalse();
+        assertThat(again.getForecast()).extracting(ForecastData.ForecastDay::getCondition).containsOnly("Cloudy");
+        verifyUpstreamCalls(2);
+
+        CachedForecast cached = forecastCache.get(locationKeys.resolve("London"), CachedForecast.class);
+        assertThat(cached.isFallback()).isFalse();
+        assertThat(cached.getRequestedDays()).isEqualTo(3);
+    }
+
+    @Test
+    void aFallbackIsNeverCached() {
+        upstreamReturns(Mono.error(new IllegalStateException("upstream down")));
+
+        assertThat(weatherService.getForecastReactive("London", 3).block().isFallback()).isTrue();
+        assertThat(forecastCache.get(locationKeys.resolve("London"))).isNull();
+    }
+
+    @Test
+    void aRequestJoiningARefreshGetsTheCachedForm() {
+        WeatherService refreshing = weatherService(refreshingCache);
+        Sinks.One<ForecastData> reload = Sinks.one();
+        upstreamReturns(Mono.just(forecast(3)), reload.asMono());
+
+        refreshing.getForecast("London", 3);
+        refreshing.getForecast("London", 3);
+        refreshingCache.clear();
+
+        Mono<ForecastData> joined = refreshing.getForecastReactive("London", 3).cache();
+        joined.subscribe();
+        reload.tryEmitValue(forecast(3));
+
+        assertThat(joined.block(Duration.ofSeconds(5)).getForecast()).hasSize(3);
+        verifyUpstreamCalls(2);
+        assertThat(cacheRefresher.getStats()).extracting("forecast")
+                .hasFieldOrPropertyWithValue("refreshes", 1L)
+                .hasFieldOrPropertyWithValue("failures", 0L);
+    }
+
+    @Test
+    void aRefreshOfTheOldSpanDoesNotReplaceAWiderEntry() {
+        WeatherService refreshing = weatherService(refreshingCache);
+        Sinks.One<ForecastData> reload = Sinks.one();
+        upstreamReturns(Mono.just(forecast(3)), reload.asMono(), Mono.just(forecast(7)));
+
+        refreshing.getForecast("London", 3);
+        refreshing.getForecast("London", 3);
+        refreshing.getForecast("London", 7);
+        reload.tryEmitValue(forecast(3));
+
+        assertThat(refreshingCache.get(locationKeys.resolve("London"), CachedForecast.class).getRequestedDays())
+                .isEqualTo(7);
+    }
+
+    @SafeVarargs
+    private void upstreamReturns(Mono<ForecastData> first, Mono<ForecastData>... rest) {
+        when(upstreamCalls.<ForecastData>call(eq("weatherapi"), eq("forecast"), any())).thenReturn(first, rest);
+    }
+
+    private void verifyUpstreamCalls(int count) {
+        verify(upstreamCalls, times(count)).call(eq("weatherapi"), eq("forecast"), any());
+    }
+
+    private static ForecastData forecast(int days) {
+        ForecastData.Location location = new ForecastData.Location();
+        location.setName("London");
+        location.setCountry("United Kingdom");
+        location.setLat(51.52);
+        location.setLon(-0.11);
+
+        List<ForecastData.ForecastDay> forecast = new ArrayList<>();
+        for (int i = 0; i < days; i++) {
+            ForecastData.ForecastDay day = new ForecastData.ForecastDay();
+            day.setDate(String.format("2026-10-%02d", i + 1));
+            day.setMaxTemp(20.0 + i);
+            day.setMinTemp(10.0 + i);
+            day.setHumidity(70);
+            day.setCondition("Cloudy");
+            forecast.add(day);
+        }
+
+        ForecastData data = new ForecastData();
+        data.setLocation(location);
+        data.setForecast(forecast);
+        data.setSources(List.of("WeatherAPI"));
+        return data;
+    }
+}